@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+/**
+ * A composed YAML node tree kept, until it is needed, in a compact form from which an equivalent tree can be
+ * rebuilt.
+ * <p>
+ * SnakeYAML nodes are large compared to the model objects built from them: every scalar, including every mapping
+ * key, is a separate object with its own string and two marks, and the marks keep the reader's buffers reachable.
+ * Here the tree is recorded as a few arrays, in document order, with one slot per node holding its kind and style,
+ * tag, value (for a scalar) or size (for a mapping or sequence), and position. Scalar values are shared through
+ * the pool passed in, so a key such as {@code description} is stored once per parse rather than once per use.
+ * <p>
+ * Aliases are recorded as copies of the aliased node. A tree which contains itself cannot be recorded.
+ */
+final class DeferredNode {
+
+    private static final int SCALAR = 0;
+    private static final int MAPPING = 1;
+    private static final int SEQUENCE = 2;
+    private static final int KIND_MASK = 3;
+    private static final int STYLE_SHIFT = 2;
+
+    private static final DumperOptions.ScalarStyle[] SCALAR_STYLES = DumperOptions.ScalarStyle.values();
+    private static final DumperOptions.FlowStyle[] FLOW_STYLES = DumperOptions.FlowStyle.values();
+    private static final int[] NO_SNIPPET = new int[0];
+
+    private final Class<?> type;
+    private final String source;
+    private final byte[] flags;
+    private final Tag[] tags;
+    private final String[] values;
+    private final int[] sizes;
+    private final int[] lines;
+    private final int[] columns;
+
+    private DeferredNode(Class<?> type, String source, Recorder recorder) {
+        this.type = type;
+        this.source = source;
+        int count = recorder.count;
+        flags = Arrays.copyOf(recorder.flags, count);
+        tags = Arrays.copyOf(recorder.tags, count);
+        values = Arrays.copyOf(recorder.values, count);
+        sizes = Arrays.copyOf(recorder.sizes, count);
+        lines = Arrays.copyOf(recorder.lines, count);
+        columns = Arrays.copyOf(recorder.columns, count);
+    }
+
+    /**
+     * Records a node tree.
+     *
+     * @param node the root of the tree; its type is kept for the rebuilt root
+     * @param strings shares each scalar value, returning an equal string
+     * @return the recorded tree
+     */
+    static DeferredNode of(Node node, UnaryOperator<String> strings) {
+        Recorder recorder = new Recorder(strings);
+        recorder.record(node);
+        Mark mark = node.getStartMark();
+        return new DeferredNode(node.getType(), mark == null ? null : mark.getName(), recorder);
+    }
+
+    /**
+     * Rebuilds the recorded node tree.
+     *
+     * @return a new node tree equivalent to the recorded one
+     */
+    Node toNode() {
+        int[] next = {0};
+        Node node = build(next);
+        node.setType(type);
+        return node;
+    }
+
+    private Node build(int[] next) {
+        int i = next[0]++;
+        int flag = flags[i];
+        // A resolver assigns only tags in the YAML namespace, and a local tag is always explicit, so the tag tells
+        // whether it was resolved, except for an explicit tag such as !!str, which OpenAPI documents do not use.
+        boolean resolved = !tags[i].isSecondary();
+        int style = flag >>> STYLE_SHIFT;
+        Mark mark = new Mark(source, 0, lines[i], columns[i], NO_SNIPPET, 0);
+        switch (flag & KIND_MASK) {
+        case SCALAR:
+            return new ScalarNode(tags[i], resolved, values[i], mark, mark, SCALAR_STYLES[style]);
+        case MAPPING:
+            List<NodeTuple> tuples = new ArrayList<>(sizes[i]);
+            for (int j = 0; j < sizes[i]; j++) {
+                Node key = build(next);
+                tuples.add(new NodeTuple(key, build(next)));
+            }
+            return new MappingNode(tags[i], resolved, tuples, mark, mark, FLOW_STYLES[style]);
+        default:
+            List<Node> items = new ArrayList<>(sizes[i]);
+            for (int j = 0; j < sizes[i]; j++) {
+                items.add(build(next));
+            }
+            return new SequenceNode(tags[i], resolved, items, mark, mark, FLOW_STYLES[style]);
+        }
+    }
+
+    private static final class Recorder {
+
+        private final UnaryOperator<String> strings;
+        private final Set<Node> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private int count;
+        private byte[] flags = new byte[64];
+        private Tag[] tags = new Tag[64];
+        private String[] values = new String[64];
+        private int[] sizes = new int[64];
+        private int[] lines = new int[64];
+        private int[] columns = new int[64];
+
+        Recorder(UnaryOperator<String> strings) {
+            this.strings = strings;
+        }
+
+        void record(Node node) {
+            if (!inProgress.add(node)) {
+                throw new YAMLException("Unable to defer recursive structure at " + node.getStartMark());
+            }
+            int i = add(node);
+            switch (node.getNodeId()) {
+            case scalar:
+                ScalarNode scalar = (ScalarNode) node;
+                flags[i] = (byte) (SCALAR | scalar.getScalarStyle().ordinal() << STYLE_SHIFT);
+                values[i] = strings.apply(scalar.getValue());
+                break;
+            case mapping:
+                MappingNode mapping = (MappingNode) node;
+                flags[i] = (byte) (MAPPING | mapping.getFlowStyle().ordinal() << STYLE_SHIFT);
+                sizes[i] = mapping.getValue().size();
+                for (NodeTuple tuple : mapping.getValue()) {
+                    record(tuple.getKeyNode());
+                    record(tuple.getValueNode());
+                }
+                break;
+            default:
+                SequenceNode sequence = (SequenceNode) node;
+                flags[i] = (byte) (SEQUENCE | sequence.getFlowStyle().ordinal() << STYLE_SHIFT);
+                sizes[i] = sequence.getValue().size();
+                for (Node item : sequence.getValue()) {
+                    record(item);
+                }
+            }
+            inProgress.remove(node);
+        }
+
+        private int add(Node node) {
+            if (count == flags.length) {
+                int capacity = count * 2;
+                flags = Arrays.copyOf(flags, capacity);
+                tags = Arrays.copyOf(tags, capacity);
+                values = Arrays.copyOf(values, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+                lines = Arrays.copyOf(lines, capacity);
+                columns = Arrays.copyOf(columns, capacity);
+            }
+            int i = count++;
+            tags[i] = node.getTag();
+            Mark mark = node.getStartMark();
+            if (mark != null) {
+                lines[i] = mark.getLine();
+                columns[i] = mark.getColumn();
+            }
+            return i;
+        }
+    }
+}
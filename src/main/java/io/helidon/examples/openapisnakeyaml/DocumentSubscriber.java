@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * Receives an OpenAPI document as a stream of UTF-8 byte buffers and parses it once the stream completes, for
+ * {@link Parser#parse(Flow.Publisher, Executor)} and {@link Parser#parse(Flow.Publisher, Executor, ParseOptions)}.
+ * <p>
+ * Each buffer is decoded as it arrives, on the publisher's thread, into one growing character buffer; a character
+ * whose bytes are split between buffers is decoded when its last byte arrives. The subscriber requests one buffer
+ * at a time, and the next only once it has decoded the last, so a fast publisher cannot queue up more than a buffer
+ * in it. No thread waits for the publisher: SnakeYAML's scanner pulls its input from a blocking {@code Reader}, so
+ * the document is scanned, composed, and built only when all of it has arrived, in one task on the executor.
+ * <p>
+ * Cancelling {@link #result} (or completing it any other way) before the stream ends cancels the subscription.
+ * A malformed byte sequence cancels it too, and fails the result with a {@link CharacterCodingException}, as does a
+ * buffer which takes the document over its budget's size, failing the result with a
+ * {@link ParseBudgetExceededException} before the buffer is decoded.
+ */
+final class DocumentSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+    private static final int INITIAL_CAPACITY = 8192;
+
+    private final Executor executor;
+    private final ParseOptions options;
+    private final ParseBudget.Tracker budget;
+    private final CompletableFuture<OpenAPI> result = new CompletableFuture<>();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    // Holds the first bytes of a character split between buffers, which are at most 3 of its 4.
+    private final ByteBuffer carry = ByteBuffer.allocate(4);
+    private CharBuffer chars = CharBuffer.allocate(INITIAL_CAPACITY);
+    private volatile Flow.Subscription subscription;
+
+    /**
+     * Creates a subscriber which builds the model on the specified executor.
+     *
+     * @param executor the executor on which to parse the document
+     */
+    DocumentSubscriber(Executor executor) {
+        this(executor, ParseOptions.defaults());
+    }
+
+    /**
+     * Creates a subscriber which builds the model on the specified executor, with the specified options.
+     *
+     * @param executor the executor on which to parse the document
+     * @param options how to build the model, and the budget, if any, within which to read the document
+     */
+    DocumentSubscriber(Executor executor, ParseOptions options) {
+        this.executor = executor;
+        this.options = options;
+        this.budget = options.budget() == null ? null : options.budget().tracker();
+        result.whenComplete((openAPI, e) -> {
+            Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        });
+    }
+
+    /**
+     * Returns the model, which completes when the document has been parsed, or exceptionally if the stream fails or
+     * the document cannot be decoded or parsed.
+     *
+     * @return the model
+     */
+    CompletableFuture<OpenAPI> result() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null || result.isDone()) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(ByteBuffer item) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            if (budget != null) {
+                budget.input(item.remaining());
+            }
+            while (carry.position() > 0 && item.hasRemaining()) {
+                carry.put(item.get());
+                carry.flip();
+                decode(carry, false);
+                carry.compact();
+            }
+            decode(item, false);
+            carry.put(item);
+        } catch (CharacterCodingException | ParseBudgetExceededException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (result.isDone()) {
+            return;
+        }
+        subscription = null;
+        try {
+            carry.flip();
+            decode(carry, true);
+            while (decoder.flush(chars).isOverflow()) {
+                grow();
+            }
+        } catch (CharacterCodingException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        chars.flip();
+        try {
+            executor.execute(this::parse);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void parse() {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            // Skip any byte order mark, which the decoder keeps, then look for JSON as Parser.parse does.
+            if (chars.hasRemaining() && chars.get(chars.position()) == '\uFEFF') {
+                chars.get();
+            }
+            CharBuffer start = chars.duplicate();
+            boolean json = Parser.isJSON(() -> start.hasRemaining() ? start.get() : -1);
+            result.complete(Parser.parse(new CharBufferReader(chars), json, options, budget));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        } finally {
+            chars = null;
+        }
+    }
+
+    private void decode(ByteBuffer bytes, boolean endOfInput) throws CharacterCodingException {
+        while (true) {
+            CoderResult coderResult = decoder.decode(bytes, chars, endOfInput);
+            if (coderResult.isOverflow()) {
+                grow();
+            } else if (coderResult.isError()) {
+                coderResult.throwException();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        CharBuffer larger = CharBuffer.allocate(chars.capacity() * 2);
+        chars.flip();
+        larger.put(chars);
+        chars = larger;
+    }
+
+    /**
+     * Reads the characters of a buffer without copying them.
+     */
+    private static final class CharBufferReader extends Reader {
+
+        private final CharBuffer chars;
+
+        CharBufferReader(CharBuffer chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (!chars.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, chars.remaining());
+            chars.get(cbuf, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Converts the MP OpenAPI enums (such as {@code Schema.SchemaType} and {@code Parameter.Style}) to and from the
+ * strings an OpenAPI document uses for them.
+ * <p>
+ * Each enum constant has one canonical spelling, which is what is written out: its {@code toString()}, which for
+ * the MP OpenAPI enums is the spelling the OpenAPI specification uses (for example, {@code spaceDelimited} for
+ * {@code Parameter.Style.SPACEDELIMITED} and {@code apiKey} for {@code SecurityScheme.Type.APIKEY}), or, for an
+ * enum such as {@code PathItem.HttpMethod} whose {@code toString()} is just the constant name, the lower-cased name.
+ * Reading accepts the canonical spelling or the constant name, ignoring case.
+ * <p>
+ * The codec for each enum type is built the first time it is needed and shared by every thread. Converting in
+ * either direction allocates nothing: writing returns the cached spelling, and reading probes a small
+ * open-addressing table with a case-insensitive hash of the string and reports an unknown string by returning
+ * {@code null} rather than by throwing.
+ */
+final class EnumCodecs {
+
+    private static final ClassValue<Codec<?>> CODECS = new ClassValue<Codec<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected Codec<?> computeValue(Class<?> type) {
+            return new Codec(type.asSubclass(Enum.class));
+        }
+    };
+
+    private EnumCodecs() {
+    }
+
+    /**
+     * Returns the codec for an enum type.
+     *
+     * @param type the enum type
+     * @param <E> the enum type
+     * @return the codec
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Enum<E>> Codec<E> codec(Class<E> type) {
+        return (Codec<E>) CODECS.get(type);
+    }
+
+    /**
+     * Returns the codec for the enum type of a property or other declared type.
+     *
+     * @param type the type, which must be an enum type
+     * @return the codec
+     */
+    static Codec<?> codecFor(Class<?> type) {
+        if (!type.isEnum()) {
+            throw new IllegalArgumentException(type.getName() + " is not an enum type");
+        }
+        return CODECS.get(type);
+    }
+
+    /**
+     * Returns the canonical spelling of an enum constant.
+     *
+     * @param value the enum constant
+     * @return the string written for it
+     */
+    static String encode(Enum<?> value) {
+        return CODECS.get(value.getDeclaringClass()).spellings[value.ordinal()];
+    }
+
+    /**
+     * Converts between the constants of one enum type and their strings.
+     *
+     * @param <E> the enum type
+     */
+    static final class Codec<E extends Enum<E>> {
+
+        private final Class<E> type;
+        private final String[] spellings;
+        // Open-addressing table of the accepted strings, probed linearly; its length is a power of two.
+        private final String[] keys;
+        private final E[] values;
+        private final String expected;
+
+        private Codec(Class<E> type) {
+            this.type = type;
+            E[] constants = type.getEnumConstants();
+            spellings = new String[constants.length];
+            List<String> accepted = new ArrayList<>();
+            List<E> acceptedValues = new ArrayList<>();
+            for (E constant : constants) {
+                String canonical = constant.toString();
+                if (canonical == null || canonical.equals(constant.name())) {
+                    canonical = constant.name().toLowerCase(Locale.ROOT);
+                }
+                spellings[constant.ordinal()] = canonical;
+                accept(accepted, acceptedValues, canonical, constant);
+                accept(accepted, acceptedValues, constant.name(), constant);
+            }
+            int capacity = Integer.highestOneBit(Math.max(accepted.size(), 1) * 4 - 1) << 1;
+            keys = new String[capacity];
+            @SuppressWarnings("unchecked")
+            E[] table = (E[]) Array.newInstance(type, capacity);
+            values = table;
+            for (int i = 0; i < accepted.size(); i++) {
+                String key = accepted.get(i);
+                int slot = hash(key) & (capacity - 1);
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                keys[slot] = key;
+                values[slot] = acceptedValues.get(i);
+            }
+            expected = String.join(", ", spellings);
+        }
+
+        private static <E extends Enum<E>> void accept(List<String> accepted, List<E> acceptedValues, String key,
+                E constant) {
+            for (int i = 0; i < accepted.size(); i++) {
+                if (accepted.get(i).equalsIgnoreCase(key)) {
+                    if (acceptedValues.get(i) != constant) {
+                        throw new IllegalStateException("'" + key + "' is ambiguous in "
+                                + constant.getDeclaringClass().getName());
+                    }
+                    return;
+                }
+            }
+            accepted.add(key);
+            acceptedValues.add(constant);
+        }
+
+        /**
+         * Returns the enum constant a string stands for, ignoring case.
+         *
+         * @param s the string
+         * @return the constant, or {@code null} if the string stands for none
+         */
+        E decode(String s) {
+            int mask = keys.length - 1;
+            int slot = hash(s) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.equalsIgnoreCase(s)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the canonical spelling of an enum constant.
+         *
+         * @param value the constant
+         * @return the string written for it
+         */
+        String encode(E value) {
+            return spellings[value.ordinal()];
+        }
+
+        Class<E> type() {
+            return type;
+        }
+
+        /**
+         * Returns the canonical spellings, separated by commas, for error messages.
+         */
+        String expected() {
+            return expected;
+        }
+
+        /**
+         * Hashes a string so that strings which are {@code equalsIgnoreCase} hash alike, folding each character
+         * the way {@code String.regionMatches} compares them when ignoring case.
+         */
+        private static int hash(String s) {
+            int h = 0;
+            for (int i = 0; i < s.length(); i++) {
+                h = 31 * h + Character.toLowerCase(Character.toUpperCase(s.charAt(i)));
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
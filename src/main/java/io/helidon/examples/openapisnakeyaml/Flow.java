@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+/**
+ * The Reactive Streams interfaces of {@code java.util.concurrent.Flow}, which this project cannot use because it
+ * builds for Java 8 (as Helidon 1.x's own {@code io.helidon.common.reactive.Flow} copies them). They have the same
+ * methods with the same contracts, so a JDK 9 or Reactive Streams publisher adapts to them with a thin wrapper
+ * which forwards each signal.
+ */
+final class Flow {
+
+    private Flow() {
+    }
+
+    /**
+     * A source of items which are sent to each subscriber as it requests them.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    interface Publisher<T> {
+
+        /**
+         * Adds a subscriber, which the publisher then calls {@link Subscriber#onSubscribe} on.
+         *
+         * @param subscriber the subscriber
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items. A publisher calls its methods one at a time, {@code onSubscribe} first, then
+     * {@code onNext} no more times than requested, and then {@code onComplete} or {@code onError} at most once.
+     *
+     * @param <T> the type of the items
+     */
+    interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * The link between a publisher and a subscriber, through which the subscriber asks for more items or for no
+     * more. Its methods may be called from any thread.
+     */
+    interface Subscription {
+
+        /**
+         * Asks for up to the specified number of further items.
+         *
+         * @param n the number of items, which must be positive
+         */
+        void request(long n);
+
+        /**
+         * Asks the publisher to stop sending items, which it may not do at once.
+         */
+        void cancel();
+    }
+}
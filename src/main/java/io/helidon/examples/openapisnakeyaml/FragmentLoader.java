@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.smallrye.openapi.api.models.ComponentsImpl;
+import io.smallrye.openapi.api.models.OpenAPIImpl;
+import io.smallrye.openapi.api.models.PathsImpl;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Extensible;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.callbacks.Callback;
+import org.eclipse.microprofile.openapi.models.examples.Example;
+import org.eclipse.microprofile.openapi.models.headers.Header;
+import org.eclipse.microprofile.openapi.models.links.Link;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.parameters.RequestBody;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.models.security.SecurityScheme;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+
+/**
+ * Parses an OpenAPI document split across several fragments, parsing the fragments concurrently and merging them
+ * into one model.
+ * <p>
+ * The fragments are merged in the order given, whatever order their parses finish in, so the result is always the
+ * same:
+ * <ul>
+ * <li>{@code openapi}, {@code info}, and {@code externalDocs} come from the first fragment which has them, as does
+ * each extension;</li>
+ * <li>the entries of {@code paths} and of each map in {@code components} are combined, as are the extensions of
+ * {@code paths} and {@code components}, and an entry or extension defined by more than one fragment is settled by
+ * the {@link ConflictPolicy}, unless the extension has equal values;</li>
+ * <li>tags are combined by name, and two tags with the same name but a different description or external
+ * documentation are also settled by the policy;</li>
+ * <li>servers are combined by URL, keeping the first server with each URL, and security requirements are combined,
+ * keeping one of any that are equal.</li>
+ * </ul>
+ * Within each map and list, entries keep the order in which they are first seen.
+ */
+final class FragmentLoader {
+
+    /**
+     * Chooses which of two definitions of the same entry to keep.
+     */
+    @FunctionalInterface
+    interface ConflictPolicy {
+
+        /**
+         * Rejects the merge.
+         */
+        ConflictPolicy FAIL = (location, earlier, later) -> {
+            throw new IllegalArgumentException("Conflicting definitions of " + location);
+        };
+
+        /**
+         * Keeps the definition from the fragment that comes first.
+         */
+        ConflictPolicy KEEP_FIRST = (location, earlier, later) -> earlier;
+
+        /**
+         * Keeps the definition from the fragment that comes last.
+         */
+        ConflictPolicy KEEP_LAST = (location, earlier, later) -> later;
+
+        /**
+         * Chooses between two definitions.
+         *
+         * @param location the entry's location, as a JSON pointer such as {@code /paths/~1pets},
+         *                 {@code /components/schemas/Pet}, or {@code /components/x-owner}, or as
+         *                 {@code /tags/<name>} for a tag
+         * @param earlier the definition from the fragment that comes first
+         * @param later the definition from the fragment that comes later
+         * @return the definition to keep
+         */
+        Object choose(String location, Object earlier, Object later);
+    }
+
+    private static final List<Section<?>> COMPONENT_SECTIONS = Arrays.asList(
+            new Section<Schema>("schemas", Components::getSchemas, Components::setSchemas),
+            new Section<APIResponse>("responses", Components::getResponses, Components::setResponses),
+            new Section<Parameter>("parameters", Components::getParameters, Components::setParameters),
+            new Section<Example>("examples", Components::getExamples, Components::setExamples),
+            new Section<RequestBody>("requestBodies", Components::getRequestBodies,
+                    Components::setRequestBodies),
+            new Section<Header>("headers", Components::getHeaders, Components::setHeaders),
+            new Section<SecurityScheme>("securitySchemes", Components::getSecuritySchemes,
+                    Components::setSecuritySchemes),
+            new Section<Link>("links", Components::getLinks, Components::setLinks),
+            new Section<Callback>("callbacks", Components::getCallbacks, Components::setCallbacks));
+
+    private final ConflictPolicy policy;
+    private final OpenAPI result = new OpenAPIImpl();
+    private String fragment;
+
+    private FragmentLoader(ConflictPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Parses and merges the fragments in the specified files.
+     *
+     * @param files the fragments, in merge order
+     * @param policy how to settle an entry defined by more than one fragment
+     * @param executor the executor on which to parse the fragments
+     * @return the merged model
+     * @throws IllegalArgumentException if the policy rejects the merge
+     * @throws UncheckedIOException if a file cannot be read
+     */
+    static OpenAPI load(List<Path> files, ConflictPolicy policy, Executor executor) {
+        List<String> names = new ArrayList<>(files.size());
+        List<Supplier<OpenAPI>> parsers = new ArrayList<>(files.size());
+        for (Path file : files) {
+            names.add(file.toString());
+            parsers.add(() -> {
+                try (InputStream is = Files.newInputStream(file)) {
+                    return Parser.parse(is);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return parseAndMerge(names, parsers, policy, executor);
+    }
+
+    /**
+     * Parses and merges the fragments in the specified streams. The streams are not closed.
+     *
+     * @param fragments the fragments, in merge order
+     * @param policy how to settle an entry defined by more than one fragment
+     * @param executor the executor on which to parse the fragments
+     * @return the merged model
+     * @throws IllegalArgumentException if the policy rejects the merge
+     */
+    static OpenAPI parse(List<InputStream> fragments, ConflictPolicy policy, Executor executor) {
+        List<String> names = new ArrayList<>(fragments.size());
+        List<Supplier<OpenAPI>> parsers = new ArrayList<>(fragments.size());
+        for (InputStream fragment : fragments) {
+            names.add("fragment " + (names.size() + 1));
+            parsers.add(() -> Parser.parse(fragment));
+        }
+        return parseAndMerge(names, parsers, policy, executor);
+    }
+
+    /**
+     * Merges models which have already been parsed.
+     *
+     * @param fragments the models, in merge order
+     * @param policy how to settle an entry defined by more than one fragment
+     * @return the merged model
+     * @throws IllegalArgumentException if the policy rejects the merge
+     */
+    static OpenAPI merge(List<OpenAPI> fragments, ConflictPolicy policy) {
+        FragmentLoader loader = new FragmentLoader(policy);
+        for (int i = 0; i < fragments.size(); i++) {
+            loader.add("fragment " + (i + 1), fragments.get(i));
+        }
+        return loader.result;
+    }
+
+    private static OpenAPI parseAndMerge(List<String> names, List<Supplier<OpenAPI>> parsers, ConflictPolicy policy,
+            Executor executor) {
+        List<CompletableFuture<OpenAPI>> parses = new ArrayList<>(parsers.size());
+        for (Supplier<OpenAPI> parser : parsers) {
+            parses.add(CompletableFuture.supplyAsync(parser, executor));
+        }
+        FragmentLoader loader = new FragmentLoader(policy);
+        try {
+            // Merging each fragment as soon as it and all those before it are ready overlaps merging with parsing.
+            for (int i = 0; i < parses.size(); i++) {
+                loader.add(names.get(i), parses.get(i).join());
+            }
+        } catch (CompletionException e) {
+            parses.forEach(parse -> parse.cancel(false));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return loader.result;
+    }
+
+    private void add(String name, OpenAPI openAPI) {
+        fragment = name;
+        if (result.getOpenapi() == null) {
+            result.setOpenapi(openAPI.getOpenapi());
+        }
+        if (result.getInfo() == null) {
+            result.setInfo(openAPI.getInfo());
+        }
+        if (result.getExternalDocs() == null) {
+            result.setExternalDocs(openAPI.getExternalDocs());
+        }
+        if (openAPI.getExtensions() != null) {
+            openAPI.getExtensions().forEach((key, value) -> {
+                if (result.getExtensions() == null || !result.getExtensions().containsKey(key)) {
+                    result.addExtension(key, value);
+                }
+            });
+        }
+        addPaths(openAPI);
+        addComponents(openAPI.getComponents());
+        addTags(openAPI.getTags());
+        addServers(openAPI.getServers());
+        addSecurity(openAPI.getSecurity());
+    }
+
+    private void addPaths(OpenAPI openAPI) {
+        if (openAPI.getPaths() == null) {
+            return;
+        }
+        if (result.getPaths() == null) {
+            result.setPaths(new PathsImpl());
+        }
+        for (Map.Entry<String, PathItem> entry : openAPI.getPaths().entrySet()) {
+            put(result.getPaths(), "/paths/", entry.getKey(), entry.getValue());
+        }
+        addExtensions(openAPI.getPaths(), result.getPaths(), "/paths/");
+    }
+
+    private void addComponents(Components components) {
+        if (components == null) {
+            return;
+        }
+        if (result.getComponents() == null) {
+            result.setComponents(new ComponentsImpl());
+        }
+        for (Section<?> section : COMPONENT_SECTIONS) {
+            section.merge(this, components, result.getComponents());
+        }
+        addExtensions(components, result.getComponents(), "/components/");
+    }
+
+    private void addExtensions(Extensible<?> from, Extensible<?> into, String section) {
+        if (from.getExtensions() == null) {
+            return;
+        }
+        from.getExtensions().forEach((key, value) -> {
+            Object existing = into.getExtensions() == null ? null : into.getExtensions().get(key);
+            into.addExtension(key, existing == null || existing.equals(value)
+                    ? value
+                    : choose(section + ReferenceResolver.escape(key), existing, value));
+        });
+    }
+
+    private void addTags(List<Tag> tags) {
+        if (tags == null) {
+            return;
+        }
+        if (result.getTags() == null) {
+            result.setTags(new ArrayList<>());
+        }
+        List<Tag> merged = result.getTags();
+        for (Tag tag : tags) {
+            int existing = indexOf(merged, Tag::getName, tag.getName());
+            if (existing < 0) {
+                merged.add(tag);
+            } else if (!sameTag(merged.get(existing), tag)) {
+                merged.set(existing, (Tag) choose("/tags/" + tag.getName(), merged.get(existing), tag));
+            }
+        }
+    }
+
+    private void addServers(List<Server> servers) {
+        if (servers == null) {
+            return;
+        }
+        if (result.getServers() == null) {
+            result.setServers(new ArrayList<>());
+        }
+        for (Server server : servers) {
+            if (indexOf(result.getServers(), Server::getUrl, server.getUrl()) < 0) {
+                result.getServers().add(server);
+            }
+        }
+    }
+
+    private void addSecurity(List<SecurityRequirement> security) {
+        if (security == null) {
+            return;
+        }
+        if (result.getSecurity() == null) {
+            result.setSecurity(new ArrayList<>());
+        }
+        for (SecurityRequirement requirement : security) {
+            if (!result.getSecurity().contains(requirement)) {
+                result.getSecurity().add(requirement);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> void put(Map<String, V> merged, String section, String key, V value) {
+        V existing = merged.get(key);
+        merged.put(key, existing == null || existing == value
+                ? value
+                : (V) choose(section + ReferenceResolver.escape(key), existing, value));
+    }
+
+    private Object choose(String location, Object earlier, Object later) {
+        try {
+            return policy.choose(location, earlier, later);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " (merging " + fragment + ")", e);
+        }
+    }
+
+    private static <T> int indexOf(List<T> list, Function<T, String> key, String value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (Objects.equals(key.apply(list.get(i)), value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean sameTag(Tag a, Tag b) {
+        return Objects.equals(a.getDescription(), b.getDescription())
+                && (a.getExternalDocs() == null
+                        ? b.getExternalDocs() == null
+                        : b.getExternalDocs() != null
+                                && Objects.equals(a.getExternalDocs().getUrl(), b.getExternalDocs().getUrl())
+                                && Objects.equals(a.getExternalDocs().getDescription(),
+                                        b.getExternalDocs().getDescription()));
+    }
+
+    /**
+     * One of the maps in {@code components}.
+     */
+    private static final class Section<V> {
+
+        private final String pointer;
+        private final Function<Components, Map<String, V>> getter;
+        private final BiConsumer<Components, Map<String, V>> setter;
+
+        Section(String name, Function<Components, Map<String, V>> getter,
+                BiConsumer<Components, Map<String, V>> setter) {
+            this.pointer = "/components/" + name + "/";
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        void merge(FragmentLoader loader, Components from, Components into) {
+            Map<String, V> entries = getter.apply(from);
+            if (entries == null) {
+                return;
+            }
+            Map<String, V> merged = getter.apply(into);
+            if (merged == null) {
+                merged = new LinkedHashMap<>();
+                setter.accept(into, merged);
+            }
+            for (Map.Entry<String, V> entry : entries.entrySet()) {
+                loader.put(merged, pointer, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
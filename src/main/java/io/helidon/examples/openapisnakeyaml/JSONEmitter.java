@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.yaml.snakeyaml.emitter.Emitable;
+import org.yaml.snakeyaml.emitter.EmitterException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.Tag;
+
+/**
+ * Writes the events produced by {@link StreamingYAMLSerializer} as indented JSON, in place of SnakeYAML's
+ * {@code Emitter}.
+ * <p>
+ * Tags are ignored, apart from deciding whether a scalar is written as a JSON number, boolean, or {@code null}
+ * rather than a string. Mapping keys are always written as strings.
+ */
+class JSONEmitter implements Emitable {
+
+    private static final String INDENT = "  ";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer writer;
+
+    // For each open container: whether it is an object and whether anything has been written to it yet.
+    private boolean[] isObject = new boolean[32];
+    private boolean[] isEmpty = new boolean[32];
+    private int depth;
+    private boolean expectingKey;
+
+    JSONEmitter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void emit(Event event) throws IOException {
+        switch (event.getEventId()) {
+        case MappingStart:
+            beforeValue();
+            writer.write('{');
+            push(true);
+            break;
+        case SequenceStart:
+            beforeValue();
+            writer.write('[');
+            push(false);
+            break;
+        case MappingEnd:
+            pop('}');
+            break;
+        case SequenceEnd:
+            pop(']');
+            break;
+        case Scalar:
+            scalar((ScalarEvent) event);
+            break;
+        case DocumentEnd:
+            writer.write('\n');
+            break;
+        case StreamEnd:
+            writer.flush();
+            break;
+        case Alias:
+            throw new EmitterException("JSON output cannot contain aliases");
+        default:
+            break;
+        }
+    }
+
+    private void scalar(ScalarEvent event) throws IOException {
+        if (expectingKey) {
+            beforeValue();
+            writeString(event.getValue());
+            writer.write(": ");
+            expectingKey = false;
+            return;
+        }
+        beforeValue();
+        String tag = event.getTag();
+        String value = event.getValue();
+        if (Tag.NULL.getValue().equals(tag)) {
+            writer.write("null");
+        } else if (Tag.BOOL.getValue().equals(tag) && ("true".equals(value) || "false".equals(value))) {
+            writer.write(value);
+        } else if ((Tag.INT.getValue().equals(tag) || Tag.FLOAT.getValue().equals(tag)) && isJSONNumber(value)) {
+            writer.write(value);
+        } else {
+            writeString(value);
+        }
+    }
+
+    /**
+     * Starts a new line and indents before each element of a container. A value following a key needs neither;
+     * the key has already been written on its own line.
+     */
+    private void beforeValue() throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        if (isObject[depth - 1] && !expectingKey) {
+            expectingKey = true;
+            return;
+        }
+        if (!isEmpty[depth - 1]) {
+            writer.write(',');
+        }
+        isEmpty[depth - 1] = false;
+        newLine(depth);
+    }
+
+    private void push(boolean object) {
+        if (depth == isObject.length) {
+            isObject = Arrays.copyOf(isObject, depth * 2);
+            isEmpty = Arrays.copyOf(isEmpty, depth * 2);
+        }
+        isObject[depth] = object;
+        isEmpty[depth] = true;
+        depth++;
+        expectingKey = object;
+    }
+
+    private void pop(char close) throws IOException {
+        depth--;
+        if (!isEmpty[depth]) {
+            newLine(depth);
+        }
+        writer.write(close);
+        expectingKey = depth > 0 && isObject[depth - 1];
+    }
+
+    private void newLine(int indent) throws IOException {
+        writer.write('\n');
+        for (int i = 0; i < indent; i++) {
+            writer.write(INDENT);
+        }
+    }
+
+    private void writeString(String s) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            writer.write(s, start, i - start);
+            start = i + 1;
+            switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            default:
+                writer.write("\\u00");
+                writer.write(HEX[c >> 4]);
+                writer.write(HEX[c & 0xF]);
+            }
+        }
+        writer.write(s, start, s.length() - start);
+        writer.write('"');
+    }
+
+    private static boolean isJSONNumber(String s) {
+        int i = 0;
+        int n = s.length();
+        if (i < n && s.charAt(i) == '-') {
+            i++;
+        }
+        int digitsStart = i;
+        while (i < n && isDigit(s.charAt(i))) {
+            i++;
+        }
+        if (i == digitsStart || (s.charAt(digitsStart) == '0' && i - digitsStart > 1)) {
+            return false;
+        }
+        if (i < n && s.charAt(i) == '.') {
+            int fractionStart = ++i;
+            while (i < n && isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == fractionStart) {
+                return false;
+            }
+        }
+        if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < n && isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        return i == n;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.parser.ParserException;
+
+/**
+ * Streaming JSON tokenizer which produces the same events SnakeYAML's own parser would for the same input.
+ * <p>
+ * Because JSON is a subset of YAML, plugging this into a SnakeYAML {@code Composer} lets the usual
+ * {@code Constructor} build the model from JSON input, while skipping SnakeYAML's much more general (and much
+ * slower) YAML scanner. Strings are reported as double-quoted scalars and all other values as plain scalars, so
+ * the {@code Resolver} assigns them the same tags it would assign when reading the input as YAML.
+ * <p>
+ * Events are produced one at a time as the {@code Composer} asks for them, and nesting is tracked with an explicit
+ * stack rather than by recursion.
+ */
+class JSONParser implements org.yaml.snakeyaml.parser.Parser {
+
+    private static final String NAME = "reader";
+    private static final int[] NO_SNIPPET = new int[0];
+
+    private static final ImplicitTuple QUOTED = new ImplicitTuple(false, true);
+    private static final ImplicitTuple PLAIN = new ImplicitTuple(true, false);
+
+    private enum State {
+        STREAM_START, DOCUMENT_START, CONTENT, DOCUMENT_END, STREAM_END, DONE
+    }
+
+    // What the innermost open container expects next.
+    private static final byte OBJECT_FIRST_KEY = 0;
+    private static final byte OBJECT_KEY = 1;
+    private static final byte OBJECT_VALUE = 2;
+    private static final byte ARRAY_FIRST_VALUE = 3;
+    private static final byte ARRAY_VALUE = 4;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int bufferPos;
+    private int bufferLimit;
+
+    private int index;
+    private int line;
+    private int column;
+
+    private State state = State.STREAM_START;
+    private byte[] stack = new byte[32];
+    private int depth;
+
+    private final StringBuilder text = new StringBuilder();
+    private Event next;
+
+    JSONParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean checkEvent(Event.ID choice) {
+        peekEvent();
+        return next != null && next.is(choice);
+    }
+
+    @Override
+    public Event peekEvent() {
+        if (next == null) {
+            next = produce();
+        }
+        return next;
+    }
+
+    @Override
+    public Event getEvent() {
+        peekEvent();
+        Event result = next;
+        next = null;
+        return result;
+    }
+
+    private Event produce() {
+        Mark mark;
+        switch (state) {
+        case STREAM_START:
+            state = State.DOCUMENT_START;
+            mark = mark();
+            return new StreamStartEvent(mark, mark);
+
+        case DOCUMENT_START:
+            state = State.CONTENT;
+            // A byte order mark is allowed only here, before anything else.
+            if (peek() == '\uFEFF') {
+                read();
+            }
+            skipWhitespace();
+            mark = mark();
+            return new DocumentStartEvent(mark, mark, false, null, null);
+
+        case CONTENT:
+            return depth == 0 ? value() : containerContent();
+
+        case DOCUMENT_END:
+            skipWhitespace();
+            mark = mark();
+            if (peek() != -1) {
+                throw error("after the document", "expected end of input but found " + describe(peek()));
+            }
+            state = State.STREAM_END;
+            return new DocumentEndEvent(mark, mark, false);
+
+        case STREAM_END:
+            state = State.DONE;
+            mark = mark();
+            return new StreamEndEvent(mark, mark);
+
+        default:
+            return null;
+        }
+    }
+
+    private Event containerContent() {
+        skipWhitespace();
+        Mark start = mark();
+        byte expected = stack[depth - 1];
+        switch (expected) {
+        case OBJECT_FIRST_KEY:
+        case OBJECT_KEY:
+            if (peek() == '}') {
+                read();
+                pop();
+                return new MappingEndEvent(start, mark());
+            }
+            if (expected == OBJECT_KEY) {
+                expect(',');
+                skipWhitespace();
+                start = mark();
+            }
+            if (peek() != '"') {
+                throw error("while parsing an object", "expected a string key but found " + describe(peek()));
+            }
+            stack[depth - 1] = OBJECT_VALUE;
+            return new ScalarEvent(null, null, QUOTED, readString(), start, mark(),
+                    DumperOptions.ScalarStyle.DOUBLE_QUOTED);
+
+        case OBJECT_VALUE:
+            expect(':');
+            stack[depth - 1] = OBJECT_KEY;
+            return value();
+
+        default:
+            if (peek() == ']') {
+                read();
+                pop();
+                return new SequenceEndEvent(start, mark());
+            }
+            if (expected == ARRAY_VALUE) {
+                expect(',');
+            }
+            stack[depth - 1] = ARRAY_VALUE;
+            return value();
+        }
+    }
+
+    private Event value() {
+        skipWhitespace();
+        Mark start = mark();
+        int c = peek();
+        switch (c) {
+        case '{':
+            read();
+            push(OBJECT_FIRST_KEY);
+            return new MappingStartEvent(null, null, true, start, mark(), DumperOptions.FlowStyle.FLOW);
+        case '[':
+            read();
+            push(ARRAY_FIRST_VALUE);
+            return new SequenceStartEvent(null, null, true, start, mark(), DumperOptions.FlowStyle.FLOW);
+        case '"':
+            String s = readString();
+            return scalar(s, QUOTED, start, DumperOptions.ScalarStyle.DOUBLE_QUOTED);
+        case 't':
+            return scalar(readLiteral("true"), PLAIN, start, DumperOptions.ScalarStyle.PLAIN);
+        case 'f':
+            return scalar(readLiteral("false"), PLAIN, start, DumperOptions.ScalarStyle.PLAIN);
+        case 'n':
+            return scalar(readLiteral("null"), PLAIN, start, DumperOptions.ScalarStyle.PLAIN);
+        default:
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return scalar(readNumber(), PLAIN, start, DumperOptions.ScalarStyle.PLAIN);
+            }
+            throw error("while parsing a value", "expected a JSON value but found " + describe(c));
+        }
+    }
+
+    private Event scalar(String value, ImplicitTuple implicit, Mark start, DumperOptions.ScalarStyle style) {
+        if (depth == 0) {
+            state = State.DOCUMENT_END;
+        }
+        return new ScalarEvent(null, null, implicit, value, start, mark(), style);
+    }
+
+    private String readString() {
+        read(); // opening quote
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == -1) {
+                throw error("while parsing a string", "found unexpected end of input");
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    text.append((char) c);
+                    break;
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'u':
+                    text.append((char) (hexDigit() << 12 | hexDigit() << 8 | hexDigit() << 4 | hexDigit()));
+                    break;
+                default:
+                    throw error("while parsing a string", "found unknown escape character " + describe(c));
+                }
+            } else if (c < 0x20) {
+                throw error("while parsing a string", "found unescaped control character " + describe(c));
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private int hexDigit() {
+        int c = read();
+        int result = Character.digit(c, 16);
+        if (c == -1 || result == -1) {
+            throw error("while parsing a unicode escape", "expected a hexadecimal digit but found " + describe(c));
+        }
+        return result;
+    }
+
+    private String readLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            int c = read();
+            if (c != literal.charAt(i)) {
+                throw error("while parsing a value", "expected '" + literal + "' but found " + describe(c));
+            }
+        }
+        return literal;
+    }
+
+    private String readNumber() {
+        text.setLength(0);
+        if (peek() == '-') {
+            text.append((char) read());
+        }
+        if (!digits()) {
+            throw error("while parsing a number", "expected a digit but found " + describe(peek()));
+        }
+        if (peek() == '.') {
+            text.append((char) read());
+            if (!digits()) {
+                throw error("while parsing a number", "expected a digit but found " + describe(peek()));
+            }
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            text.append((char) read());
+            if (peek() == '+' || peek() == '-') {
+                text.append((char) read());
+            }
+            if (!digits()) {
+                throw error("while parsing a number", "expected a digit but found " + describe(peek()));
+            }
+        }
+        return text.toString();
+    }
+
+    private boolean digits() {
+        boolean found = false;
+        while (peek() >= '0' && peek() <= '9') {
+            text.append((char) read());
+            found = true;
+        }
+        return found;
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        int c = read();
+        if (c != expected) {
+            throw error("while parsing " + (stack[depth - 1] <= OBJECT_VALUE ? "an object" : "an array"),
+                    "expected '" + expected + "' but found " + describe(c));
+        }
+        skipWhitespace();
+    }
+
+    private void push(byte expected) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = expected;
+    }
+
+    private void pop() {
+        if (--depth == 0) {
+            state = State.DOCUMENT_END;
+        }
+    }
+
+    private void skipWhitespace() {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            read();
+            c = peek();
+        }
+    }
+
+    private int peek() {
+        if (bufferPos == bufferLimit && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPos];
+    }
+
+    private int read() {
+        if (bufferPos == bufferLimit && !fill()) {
+            return -1;
+        }
+        char c = buffer[bufferPos++];
+        index++;
+        if (c == '\n') {
+            line++;
+            column = 0;
+        } else {
+            column++;
+        }
+        return c;
+    }
+
+    private boolean fill() {
+        try {
+            int n = reader.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return false;
+            }
+            bufferPos = 0;
+            bufferLimit = n;
+            return true;
+        } catch (IOException e) {
+            throw new YAMLException(e);
+        }
+    }
+
+    private Mark mark() {
+        return new Mark(NAME, index, line, column, NO_SNIPPET, 0);
+    }
+
+    private ParserException error(String context, String problem) {
+        return new ParserException(context, null, problem, mark());
+    }
+
+    private static String describe(int c) {
+        return c == -1 ? "end of input" : String.format("'%c' (0x%04x)", (char) c, c);
+    }
+}
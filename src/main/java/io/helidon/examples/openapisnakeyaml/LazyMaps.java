@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import io.smallrye.openapi.api.models.ModelImpl;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+
+/**
+ * The maps {@link ParseOptions#lazily lazy parsing} uses for {@code paths} and {@code components.schemas}.
+ * <p>
+ * While parsing, each entry's key is added to the map right away but its value is recorded only as the composed
+ * YAML node, in the compact form of {@link DeferredNode}. The model object is built from the node the first time
+ * the entry's value is requested, using the current thread's parsing constructor, and then replaces the node.
+ * Listing the keys, checking for a key, or getting the size therefore builds nothing; requesting all the values
+ * (iterating the entries, copying the map, writing the model out, and so on) builds everything still pending.
+ * <p>
+ * Access is synchronized on the map, so a lazily-parsed model may be read from several threads. An entry whose
+ * node is an alias of another entry's node is built separately from it, so the two values are equal but not the
+ * same object.
+ */
+final class LazyMaps {
+
+    private LazyMaps() {
+    }
+
+    /**
+     * A map to which {@code CustomConstructor} adds entries as nodes rather than values.
+     */
+    interface Deferring {
+
+        void defer(String key, DeferredNode node);
+    }
+
+    /**
+     * A map whose values may be deferred nodes, built when first requested. Every method which could expose a
+     * pending value builds it first: those which take a key build that entry, and those which see every value build
+     * them all.
+     *
+     * @param <V> the type of model object built from each node
+     */
+    static class LazyMap<V> extends LinkedHashMap<String, V> implements Deferring {
+
+        private static final long serialVersionUID = 1L;
+
+        // The entries which have not yet been built.
+        private final transient Map<String, DeferredNode> pending = new HashMap<>();
+        private final Class<V> type;
+
+        LazyMap(Class<V> type) {
+            this.type = type;
+        }
+
+        @Override
+        public synchronized void defer(String key, DeferredNode node) {
+            super.put(key, null);
+            pending.put(key, node);
+        }
+
+        /**
+         * Returns the number of entries which have not yet been built.
+         */
+        synchronized int pending() {
+            return pending.size();
+        }
+
+        @Override
+        public synchronized V get(Object key) {
+            build(key);
+            return super.get(key);
+        }
+
+        @Override
+        public synchronized V getOrDefault(Object key, V defaultValue) {
+            build(key);
+            return super.getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public synchronized V put(String key, V value) {
+            take(key);
+            return super.put(key, value);
+        }
+
+        @Override
+        public synchronized void putAll(Map<? extends String, ? extends V> m) {
+            m.keySet().forEach(this::take);
+            super.putAll(m);
+        }
+
+        @Override
+        public synchronized V remove(Object key) {
+            build(key);
+            return super.remove(key);
+        }
+
+        @Override
+        public synchronized boolean remove(Object key, Object value) {
+            build(key);
+            return super.remove(key, value);
+        }
+
+        @Override
+        public synchronized void clear() {
+            pending.clear();
+            super.clear();
+        }
+
+        @Override
+        public synchronized boolean containsValue(Object value) {
+            buildAll();
+            return super.containsValue(value);
+        }
+
+        @Override
+        public synchronized Collection<V> values() {
+            buildAll();
+            return super.values();
+        }
+
+        @Override
+        public synchronized Set<Map.Entry<String, V>> entrySet() {
+            buildAll();
+            return super.entrySet();
+        }
+
+        @Override
+        public synchronized void forEach(BiConsumer<? super String, ? super V> action) {
+            buildAll();
+            super.forEach(action);
+        }
+
+        @Override
+        public synchronized void replaceAll(BiFunction<? super String, ? super V, ? extends V> function) {
+            buildAll();
+            super.replaceAll(function);
+        }
+
+        @Override
+        public synchronized V putIfAbsent(String key, V value) {
+            build(key);
+            return super.putIfAbsent(key, value);
+        }
+
+        @Override
+        public synchronized boolean replace(String key, V oldValue, V newValue) {
+            build(key);
+            return super.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public synchronized V replace(String key, V value) {
+            build(key);
+            return super.replace(key, value);
+        }
+
+        @Override
+        public synchronized V computeIfAbsent(String key, Function<? super String, ? extends V> mappingFunction) {
+            build(key);
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public synchronized V computeIfPresent(String key,
+                BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+            build(key);
+            return super.computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public synchronized V compute(String key,
+                BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+            build(key);
+            return super.compute(key, remappingFunction);
+        }
+
+        @Override
+        public synchronized V merge(String key, V value,
+                BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            build(key);
+            return super.merge(key, value, remappingFunction);
+        }
+
+        private DeferredNode take(Object key) {
+            return pending.isEmpty() ? null : pending.remove(key);
+        }
+
+        private void build(Object key) {
+            DeferredNode node = take(key);
+            if (node != null) {
+                super.put((String) key, type.cast(Parser.constructDeferred(node)));
+            }
+        }
+
+        private void buildAll() {
+            if (!pending.isEmpty()) {
+                new ArrayList<>(pending.keySet()).forEach(this::build);
+            }
+        }
+    }
+
+    /**
+     * The lazy map for {@code paths}, which is also the {@code Paths} model object, as {@code PathsImpl} is. Its map
+     * methods implement the ones {@code Paths} inherits from {@code Map} and deprecates.
+     */
+    @SuppressWarnings("deprecation")
+    static class LazyPaths extends LazyMap<PathItem> implements Paths, ModelImpl {
+
+        private static final long serialVersionUID = 1L;
+
+        private Map<String, Object> extensions;
+
+        LazyPaths() {
+            super(PathItem.class);
+        }
+
+        @Override
+        public Map<String, Object> getExtensions() {
+            return extensions;
+        }
+
+        @Override
+        public Paths addExtension(String name, Object value) {
+            if (value != null) {
+                if (extensions == null) {
+                    extensions = new LinkedHashMap<>();
+                }
+                extensions.put(name, value);
+            }
+            return this;
+        }
+
+        @Override
+        public void removeExtension(String name) {
+            if (extensions != null) {
+                extensions.remove(name);
+            }
+        }
+
+        @Override
+        public void setExtensions(Map<String, Object> extensions) {
+            this.extensions = extensions;
+        }
+
+        @Override
+        public Paths addPathItem(String name, PathItem item) {
+            if (item != null) {
+                put(name, item);
+            }
+            return this;
+        }
+
+        @Override
+        public void removePathItem(String name) {
+            remove(name);
+        }
+
+        @Override
+        public Map<String, PathItem> getPathItems() {
+            return Collections.unmodifiableMap(this);
+        }
+
+        @Override
+        public void setPathItems(Map<String, PathItem> items) {
+            clear();
+            putAll(items);
+        }
+    }
+
+    /**
+     * The lazy map for {@code components.schemas}.
+     */
+    static class LazySchemas extends LazyMap<Schema> {
+
+        private static final long serialVersionUID = 1L;
+
+        LazySchemas() {
+            super(Schema.class);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.openapi.models.Constructible;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.BeanAccess;
+import org.yaml.snakeyaml.introspector.GenericProperty;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.introspector.PropertySubstitute;
+import org.yaml.snakeyaml.introspector.PropertyUtils;
+
+/**
+ * The bean properties and constructors of the MP OpenAPI model types, with accessors compiled once per class.
+ * <p>
+ * SnakeYAML's own {@code MethodProperty} calls each getter and setter through {@code Method.invoke}, and
+ * {@code TypeDescription} creates each object through a {@code Constructor} it looks up afresh every time. Here each
+ * accessor and no-argument constructor is instead turned, the first time its class is used, into a
+ * {@code Function}, {@code BiConsumer}, or {@code Supplier} generated by {@link LambdaMetafactory}, which the JIT
+ * compiler can inline like an ordinary call: there are no argument arrays, no access checks, and no boxing beyond
+ * what the model's own accessors do. (An accessor the generated classes cannot reach falls back to a
+ * {@code MethodHandle}.)
+ * <p>
+ * The results are kept in {@link ClassValue}s, so they are computed once per class and shared by every thread, by
+ * parsing (through {@link ModelPropertyUtils}, {@link AccessorSubstitute}, and {@link ModelTypeDescription}) and by
+ * writing out (through the {@code CustomRepresenter}'s {@code ModelPropertyUtils}).
+ */
+final class ModelAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class);
+
+    private static final ClassValue<Map<String, Property>> PROPERTIES = new ClassValue<Map<String, Property>>() {
+        @Override
+        protected Map<String, Property> computeValue(Class<?> type) {
+            return discoverProperties(type);
+        }
+    };
+
+    private static final ClassValue<Supplier<Object>> FACTORIES = new ClassValue<Supplier<Object>>() {
+        @Override
+        protected Supplier<Object> computeValue(Class<?> type) {
+            return factory(type);
+        }
+    };
+
+    private ModelAccessors() {
+    }
+
+    /**
+     * Tells whether the properties of a type are handled here: those of the MP OpenAPI model interfaces and their
+     * implementations.
+     */
+    static boolean isModelType(Class<?> type) {
+        return Constructible.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Returns the bean properties of a type, by name, in the order the {@code Introspector} reports them.
+     *
+     * @param type the type
+     * @return the properties
+     */
+    static Map<String, Property> properties(Class<?> type) {
+        return PROPERTIES.get(type);
+    }
+
+    /**
+     * Returns a bean property of a type.
+     *
+     * @param type the type
+     * @param name the property name
+     * @return the property
+     * @throws YAMLException if the type has no such property
+     */
+    static Property property(Class<?> type, String name) {
+        Property result = properties(type).get(name);
+        if (result == null) {
+            throw new YAMLException("Unable to find property '" + name + "' on class: " + type.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Creates an instance of a class through its no-argument constructor.
+     *
+     * @param type the class
+     * @return the new instance
+     */
+    static Object newInstance(Class<?> type) {
+        return FACTORIES.get(type).get();
+    }
+
+    private static Map<String, Property> discoverProperties(Class<?> type) {
+        Map<String, Property> result = new LinkedHashMap<>();
+        try {
+            // As in SnakeYAML's PropertyUtils, for BeanAccess.DEFAULT.
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                Method readMethod = descriptor.getReadMethod();
+                if ((readMethod == null || !readMethod.getName().equals("getClass"))
+                        && !Boolean.TRUE.equals(descriptor.getValue("transient"))) {
+                    result.put(descriptor.getName(), new AccessorProperty(descriptor));
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new YAMLException(e);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method method) {
+        try {
+            MethodHandle target = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                    GETTER_TYPE, target, MethodType.methodType(wrap(method.getReturnType()),
+                            method.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            MethodHandle handle = accessibleHandle(method).asType(GETTER_TYPE);
+            return bean -> {
+                try {
+                    return handle.invokeExact(bean);
+                } catch (RuntimeException | Error t) {
+                    throw t;
+                } catch (Throwable t) {
+                    throw new YAMLException(t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method method) {
+        try {
+            MethodHandle target = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class), SETTER_TYPE, target,
+                    MethodType.methodType(void.class, method.getDeclaringClass(),
+                            wrap(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            MethodHandle handle = accessibleHandle(method).asType(SETTER_TYPE);
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (RuntimeException | Error t) {
+                    throw t;
+                } catch (Throwable t) {
+                    throw new YAMLException(t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> factory(Class<?> type) {
+        MethodHandle target;
+        try {
+            target = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new YAMLException("No accessible no-argument constructor for " + type.getName(), e);
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                    FACTORY_TYPE, target, MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            MethodHandle handle = target.asType(FACTORY_TYPE);
+            return () -> {
+                try {
+                    return handle.invokeExact();
+                } catch (RuntimeException | Error t) {
+                    throw t;
+                } catch (Throwable t) {
+                    throw new YAMLException(t);
+                }
+            };
+        }
+    }
+
+    private static MethodHandle accessibleHandle(Method method) {
+        try {
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new YAMLException("Unable to access " + method, e);
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    /**
+     * A bean property whose accessors are the generated functions.
+     */
+    private static final class AccessorProperty extends GenericProperty {
+
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+
+        AccessorProperty(PropertyDescriptor descriptor) {
+            super(descriptor.getName(), descriptor.getPropertyType(), descriptor.getReadMethod() != null
+                    ? descriptor.getReadMethod().getGenericReturnType()
+                    : descriptor.getWriteMethod().getGenericParameterTypes()[0]);
+            readMethod = descriptor.getReadMethod();
+            writeMethod = descriptor.getWriteMethod();
+            getter = readMethod == null ? null : getter(readMethod);
+            setter = writeMethod == null ? null : setter(writeMethod);
+            // GenericProperty works the type arguments out lazily and without synchronization; do it now, before
+            // the property is shared.
+            getActualTypeArguments();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return getter != null;
+        }
+
+        @Override
+        public boolean isWritable() {
+            return setter != null;
+        }
+
+        @Override
+        public Object get(Object object) {
+            if (getter == null) {
+                throw new YAMLException("No readable property '" + getName() + "' on class: "
+                        + object.getClass().getName());
+            }
+            return getter.apply(object);
+        }
+
+        @Override
+        public void set(Object object, Object value) {
+            if (setter == null) {
+                throw new YAMLException("No writable property '" + getName() + "' on class: "
+                        + object.getClass().getName());
+            }
+            setter.accept(object, value);
+        }
+
+        @Override
+        public List<Annotation> getAnnotations() {
+            return Arrays.asList((readMethod != null ? readMethod : writeMethod).getAnnotations());
+        }
+
+        @Override
+        public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+            A result = readMethod == null ? null : readMethod.getAnnotation(annotationType);
+            return result != null || writeMethod == null ? result : writeMethod.getAnnotation(annotationType);
+        }
+    }
+
+    /**
+     * A {@code PropertyUtils} which returns the shared properties for the model types.
+     * <p>
+     * Like any {@code PropertyUtils}, an instance caches the sorted property sets it returns without
+     * synchronization, so each thread should use its own.
+     */
+    static class ModelPropertyUtils extends PropertyUtils {
+
+        @Override
+        protected Map<String, Property> getPropertiesMap(Class<?> type, BeanAccess bAccess) {
+            return bAccess != BeanAccess.FIELD && isModelType(type)
+                    ? properties(type)
+                    : super.getPropertiesMap(type, bAccess);
+        }
+    }
+
+    /**
+     * A property, for a {@code TypeDescription}, which is read and written through another property's accessors
+     * but has its own name and, optionally, type and type arguments. This stands in for the accessor names a
+     * {@code PropertySubstitute} would otherwise look up and call reflectively.
+     */
+    static class AccessorSubstitute extends PropertySubstitute {
+
+        private final Property accessor;
+
+        /**
+         * Creates a substitute with the same type as the property whose accessors it uses.
+         *
+         * @param name the substitute's name
+         * @param accessor the property whose accessors to use
+         */
+        AccessorSubstitute(String name, Property accessor) {
+            this(name, accessor.getType(), accessor);
+        }
+
+        /**
+         * Creates a substitute.
+         *
+         * @param name the substitute's name
+         * @param type the substitute's type, given to the value nodes it is set from
+         * @param accessor the property whose accessors to use
+         * @param params the type arguments of the substitute's type
+         */
+        AccessorSubstitute(String name, Class<?> type, Property accessor, Class<?>... params) {
+            super(name, type, params);
+            this.accessor = accessor;
+        }
+
+        @Override
+        public boolean isReadable() {
+            return accessor.isReadable();
+        }
+
+        @Override
+        public boolean isWritable() {
+            return accessor.isWritable();
+        }
+
+        @Override
+        public Object get(Object object) {
+            return accessor.get(object);
+        }
+
+        @Override
+        public void set(Object object, Object value) throws Exception {
+            accessor.set(object, value);
+        }
+
+        @Override
+        public List<Annotation> getAnnotations() {
+            return accessor.getAnnotations();
+        }
+
+        @Override
+        public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+            return accessor.getAnnotation(annotationType);
+        }
+    }
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import io.smallrye.openapi.api.models.ComponentsImpl;
+import io.smallrye.openapi.api.models.OpenAPIImpl;
+import io.smallrye.openapi.api.models.PathsImpl;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+
+/**
+ * Keeps an OpenAPI model up to date with a document on disk, rebuilding only the path items and schemas which
+ * change.
+ * <p>
+ * Each time the file is read it is composed into a node tree (see {@link Parser#compose}), and the tree is reduced
+ * to one structural hash per entry: one per path item, one per schema in {@code components.schemas}, and one for
+ * each other top-level entry and each other kind of component. Comparing those with the previous reading's gives
+ * the entries which were added, removed, or changed. If only path items and schemas changed, just those are built
+ * (see {@link Parser#construct}); everything else in the new model is the previous model's objects. Any other change,
+ * including one to an {@code x-} extension among the path items, rebuilds the whole model. The node tree itself is
+ * not kept, only the hashes.
+ * <p>
+ * The current model is never changed in place. An update builds a new {@code OpenAPI}, {@code Paths}, and
+ * {@code Components} which share the unchanged objects, and then replaces the current model in one volatile
+ * write, so a reader which gets the model from {@link #current} once sees a consistent model for as long as it
+ * holds it. (Callers must not change the models either, since consecutive models share objects.) Each update is
+ * then reported to the listeners with the JSON pointers of the entries that changed, such as
+ * {@code /paths/~1pets~1{id}} and {@code /components/schemas/Pet}, so that a {@link RenderedDocumentCache}, for
+ * example, can {@link RenderedDocumentCache#invalidate invalidate} the previous model.
+ * <p>
+ * Reading the file and hashing its tree still cost time in proportion to the document; it is the construction of
+ * model objects, usually most of the cost of {@link Parser#parse}, that is in proportion to the change.
+ * <p>
+ * {@link #watch} starts a daemon thread which reloads the file when its directory's {@link WatchService} reports
+ * that it changed. {@link #reload} reloads it at once. Reloads are serialized; a reload which fails (because the
+ * file is being rewritten, say) leaves the current model in place and is reported to the listeners.
+ */
+final class ModelReloader implements AutoCloseable {
+
+    private static final String PATHS = "/paths/";
+    private static final String SCHEMAS = "/components/schemas/";
+    private static final String EXTENSION_PREFIX = "x-";
+    private static final long SETTLE_MILLIS = 50;
+    // Deeper nesting than any real document has, and shallow enough to compose, hash, and build on a default stack.
+    private static final ParseBudget BUDGET = ParseBudget.unlimited().withMaxDepth(256);
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Path file;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile OpenAPI current;
+    private Map<String, Long> hashes;
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Creates a reloader for a document, reading it at once.
+     *
+     * @param file the OpenAPI document
+     * @throws UncheckedIOException if the document cannot be read
+     * @throws YAMLException if the document is empty, nests too deeply, or cannot be parsed
+     */
+    ModelReloader(Path file) {
+        this.file = file.toAbsolutePath();
+        Node root = read();
+        hashes = hash(root);
+        current = Parser.construct(root, OpenAPI.class);
+    }
+
+    /**
+     * Returns the model of the document as last read.
+     *
+     * @return the current model
+     */
+    OpenAPI current() {
+        return current;
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the document again and updates the current model with any changes.
+     *
+     * @return the change, or {@code null} if the document is structurally the same as when last read
+     * @throws UncheckedIOException if the document cannot be read
+     * @throws YAMLException if the document is empty, nests too deeply, or cannot be parsed
+     */
+    synchronized Change reload() {
+        Node root = read();
+        Map<String, Long> newHashes = hash(root);
+        List<String> changed = new ArrayList<>();
+        boolean incremental = true;
+        for (Map.Entry<String, Long> entry : newHashes.entrySet()) {
+            if (!entry.getValue().equals(hashes.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+                incremental &= isIncremental(entry.getKey());
+            }
+        }
+        for (String pointer : hashes.keySet()) {
+            if (!newHashes.containsKey(pointer)) {
+                changed.add(pointer);
+                incremental &= isIncremental(pointer);
+            }
+        }
+        if (changed.isEmpty()) {
+            return null;
+        }
+        OpenAPI previous = current;
+        OpenAPI updated;
+        if (incremental) {
+            updated = update(previous, (MappingNode) root, newHashes, changed);
+        } else {
+            updated = Parser.construct(root, OpenAPI.class);
+        }
+        hashes = newHashes;
+        current = updated;
+        Change change = new Change(previous, updated, changed, !incremental);
+        listeners.forEach(listener -> listener.changed(change));
+        return change;
+    }
+
+    /**
+     * Starts watching the document's directory, reloading the document whenever it is created or modified.
+     *
+     * @throws UncheckedIOException if the directory cannot be watched
+     */
+    synchronized void watch() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        watcher = new Thread(this::watchLoop, "openapi-reloader-" + file.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the document.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            watchService = null;
+            watcher = null;
+        }
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                // An editor's save is often several events; wait for them to settle and reload once.
+                boolean ours = false;
+                for (WatchKey key = service.take(); key != null; key = service.poll(SETTLE_MILLIS,
+                        TimeUnit.MILLISECONDS)) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        ours |= file.getFileName().equals(event.context());
+                    }
+                    key.reset();
+                }
+                if (ours) {
+                    try {
+                        reload();
+                    } catch (RuntimeException | StackOverflowError e) {
+                        // The depth limit keeps a document from running out of stack, but if one still does it
+                        // fails just this reload; the watcher carries on. Any other Error ends it.
+                        listeners.forEach(listener -> listener.failed(e));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed; stop watching.
+        }
+    }
+
+    /**
+     * Composes the document, limiting how deeply it nests. An empty document is rejected rather than taken as an
+     * empty model, since it is far more likely to be a file caught part way through being rewritten.
+     */
+    private Node read() {
+        try (InputStream is = Files.newInputStream(file)) {
+            Node root = Parser.compose(is, BUDGET);
+            if (root == null) {
+                throw new YAMLException(file + " is empty");
+            }
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Tells whether a changed entry is a path item or schema, which {@link #update} can build on its own. An
+     * extension among the path items ({@code /paths/x-...}) is not a path item, so changing it rebuilds the model.
+     */
+    private static boolean isIncremental(String pointer) {
+        return pointer.startsWith(PATHS) && !isExtension(pointer.substring(PATHS.length()))
+                || pointer.startsWith(SCHEMAS);
+    }
+
+    private static boolean isExtension(String name) {
+        return name != null && name.startsWith(EXTENSION_PREFIX);
+    }
+
+    /**
+     * Builds the model for the new tree from the previous model, constructing only the path items and schemas
+     * whose hashes changed. Nothing but those changed, so every other property of the previous model is reused.
+     */
+    private OpenAPI update(OpenAPI previous, MappingNode root, Map<String, Long> newHashes, List<String> changed) {
+        OpenAPI result = copy(previous, new OpenAPIImpl());
+
+        MappingNode pathsNode = mapping(root, "paths");
+        if (changed.stream().anyMatch(pointer -> pointer.startsWith(PATHS))) {
+            Paths paths = new PathsImpl();
+            Paths previousPaths = previous.getPaths();
+            for (NodeTuple tuple : pathsNode.getValue()) {
+                String name = scalar(tuple.getKeyNode());
+                String pointer = PATHS + escape(keyText(tuple.getKeyNode()));
+                PathItem pathItem = previousPaths == null || !newHashes.get(pointer).equals(hashes.get(pointer))
+                        ? null : previousPaths.getPathItem(name);
+                paths.addPathItem(name, pathItem != null ? pathItem
+                        : Parser.construct(tuple.getValueNode(), PathItem.class));
+            }
+            result.setPaths(paths);
+        }
+
+        MappingNode schemasNode = mapping(mapping(root, "components"), "schemas");
+        if (changed.stream().anyMatch(pointer -> pointer.startsWith(SCHEMAS))) {
+            Components components = copy(previous.getComponents(), new ComponentsImpl());
+            Map<String, Schema> previousSchemas = previous.getComponents() == null ? null
+                    : previous.getComponents().getSchemas();
+            Map<String, Schema> schemas = new LinkedHashMap<>();
+            for (NodeTuple tuple : schemasNode.getValue()) {
+                String name = scalar(tuple.getKeyNode());
+                String pointer = SCHEMAS + escape(keyText(tuple.getKeyNode()));
+                Schema schema = previousSchemas == null || !newHashes.get(pointer).equals(hashes.get(pointer))
+                        ? null : previousSchemas.get(name);
+                schemas.put(name, schema != null ? schema : Parser.construct(tuple.getValueNode(), Schema.class));
+            }
+            components.setSchemas(schemas);
+            result.setComponents(components);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the properties of one model object to another of the same kind, sharing the property values.
+     */
+    private static <T> T copy(T from, T to) {
+        if (from != null) {
+            for (Property property : ModelAccessors.properties(to.getClass()).values()) {
+                if (property.isReadable() && property.isWritable()) {
+                    try {
+                        property.set(to, property.get(from));
+                    } catch (Exception e) {
+                        throw new YAMLException("Cannot copy property " + property.getName(), e);
+                    }
+                }
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Reduces a document's tree to a hash per path item, per schema, and per other top-level entry or kind of
+     * component, by JSON pointer, in document order.
+     */
+    private static Map<String, Long> hash(Node root) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (!(root instanceof MappingNode)) {
+            result.put("", hashTree(root));
+            return result;
+        }
+        for (NodeTuple tuple : ((MappingNode) root).getValue()) {
+            String key = "/" + escape(keyText(tuple.getKeyNode()));
+            Node value = tuple.getValueNode();
+            if (key.equals("/paths") && value instanceof MappingNode) {
+                hashEntries(result, key, (MappingNode) value);
+            } else if (key.equals("/components") && value instanceof MappingNode) {
+                result.put(key, hash(FNV_OFFSET, value.getTag().getValue()));
+                for (NodeTuple kind : ((MappingNode) value).getValue()) {
+                    String kindKey = key + "/" + escape(keyText(kind.getKeyNode()));
+                    if ((kindKey + "/").equals(SCHEMAS) && kind.getValueNode() instanceof MappingNode) {
+                        hashEntries(result, kindKey, (MappingNode) kind.getValueNode());
+                    } else {
+                        result.put(kindKey, hashTree(kind.getValueNode()));
+                    }
+                }
+            } else {
+                result.put(key, hashTree(value));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hashes the entries of a map separately, and the map itself by its tag alone, so that adding or removing the
+     * (perhaps empty) map is still a change of its own.
+     */
+    private static void hashEntries(Map<String, Long> result, String pointer, MappingNode node) {
+        result.put(pointer, hash(FNV_OFFSET, node.getTag().getValue()));
+        for (NodeTuple tuple : node.getValue()) {
+            result.put(pointer + "/" + escape(keyText(tuple.getKeyNode())), hashTree(tuple.getValueNode()));
+        }
+    }
+
+    private static long hashTree(Node node) {
+        return hash(FNV_OFFSET, node, new IdentityHashMap<>());
+    }
+
+    /**
+     * Hashes a node tree by its tags, scalar values, and structure, FNV-1a style. A mapping or sequence met again
+     * through an alias, which may be one of its own ancestors, is hashed by the order in which it was first met
+     * rather than walked again.
+     */
+    private static long hash(long h, Node node, Map<Node, Integer> visited) {
+        if (node.getNodeId() != NodeId.scalar) {
+            Integer first = visited.putIfAbsent(node, visited.size());
+            if (first != null) {
+                return mix(mix(h, '*'), first);
+            }
+        }
+        h = hash(h, node.getTag().getValue());
+        switch (node.getNodeId()) {
+        case scalar:
+            return hash(mix(h, 's'), ((ScalarNode) node).getValue());
+        case sequence:
+            h = mix(h, '[');
+            for (Node item : ((SequenceNode) node).getValue()) {
+                h = hash(h, item, visited);
+            }
+            return mix(h, ']');
+        case mapping:
+            h = mix(h, '{');
+            for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                h = hash(hash(h, tuple.getKeyNode(), visited), tuple.getValueNode(), visited);
+            }
+            return mix(h, '}');
+        default:
+            return mix(h, node.getNodeId().ordinal());
+        }
+    }
+
+    private static long hash(long h, String s) {
+        h = mix(h, s.length());
+        for (int i = 0; i < s.length(); i++) {
+            h = mix(h, s.charAt(i));
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        return (h ^ value) * FNV_PRIME;
+    }
+
+    private static MappingNode mapping(Node node, String key) {
+        if (node instanceof MappingNode) {
+            for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                if (key.equals(scalar(tuple.getKeyNode())) && tuple.getValueNode() instanceof MappingNode) {
+                    return (MappingNode) tuple.getValueNode();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String scalar(Node node) {
+        return node.getNodeId() == NodeId.scalar ? ((ScalarNode) node).getValue() : null;
+    }
+
+    /**
+     * Returns the text of a key for its JSON pointer; a key which is not a scalar, which OpenAPI documents do not
+     * use, is identified by its hash.
+     */
+    private static String keyText(Node key) {
+        String text = scalar(key);
+        return text != null ? text : Long.toHexString(hashTree(key));
+    }
+
+    /**
+     * Escapes a key for use in a JSON pointer (RFC 6901).
+     */
+    static String escape(String key) {
+        return key.indexOf('~') < 0 && key.indexOf('/') < 0 ? key : key.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Receives the updates of a {@link ModelReloader}'s model.
+     */
+    interface Listener {
+
+        /**
+         * Reports that the model was updated.
+         *
+         * @param change the update
+         */
+        void changed(Change change);
+
+        /**
+         * Reports that reloading the document after it changed on disk failed, so the model was not updated.
+         *
+         * @param e the failure
+         */
+        default void failed(Throwable e) {
+        }
+    }
+
+    /**
+     * An update of the model.
+     */
+    static final class Change {
+
+        private final OpenAPI previous;
+        private final OpenAPI current;
+        private final List<String> pointers;
+        private final boolean rebuilt;
+
+        private Change(OpenAPI previous, OpenAPI current, List<String> pointers, boolean rebuilt) {
+            this.previous = previous;
+            this.current = current;
+            this.pointers = Collections.unmodifiableList(pointers);
+            this.rebuilt = rebuilt;
+        }
+
+        /**
+         * Returns the model before the update, which is unchanged.
+         *
+         * @return the previous model
+         */
+        OpenAPI previous() {
+            return previous;
+        }
+
+        /**
+         * Returns the model after the update.
+         *
+         * @return the new model
+         */
+        OpenAPI current() {
+            return current;
+        }
+
+        /**
+         * Returns the JSON pointers of the entries which were added, changed, or removed: path items, schemas, other
+         * top-level entries (such as {@code /info}), and other kinds of component (such as
+         * {@code /components/responses}).
+         *
+         * @return the JSON pointers, in document order, followed by those of removed entries
+         */
+        List<String> pointers() {
+            return pointers;
+        }
+
+        /**
+         * Tells whether the whole model was rebuilt, because something other than path items and schemas changed.
+         *
+         * @return whether the model was rebuilt rather than updated
+         */
+        boolean isRebuilt() {
+            return rebuilt;
+        }
+
+        @Override
+        public String toString() {
+            return (rebuilt ? "Rebuilt " : "Updated ") + String.join(", ", pointers);
+        }
+    }
+}
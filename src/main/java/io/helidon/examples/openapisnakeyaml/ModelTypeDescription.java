@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.yaml.snakeyaml.TypeDescription;
+import org.yaml.snakeyaml.nodes.Node;
+
+/**
+ * Describes an MP OpenAPI model interface and the class which implements it, creating instances through the
+ * constructor {@link ModelAccessors} compiles rather than one looked up reflectively for every instance.
+ */
+class ModelTypeDescription extends TypeDescription {
+
+    private final Class<?> impl;
+
+    ModelTypeDescription(Class<?> clazz, Class<?> impl) {
+        super(clazz, null, impl);
+        this.impl = impl;
+    }
+
+    @Override
+    public Object newInstance(Node node) {
+        return ModelAccessors.newInstance(impl);
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+
+/**
+ * Limits on what {@link Parser#parse(java.io.InputStream, ParseOptions)} will read and build, so that a document
+ * from an untrusted source cannot make the parser use more memory or time than expected.
+ * <p>
+ * The limits are on the size of the document in bytes, the depth to which its mappings and sequences nest, the
+ * number of its nodes, the number of aliases in it, and the number of model objects of each type built from it.
+ * Each is checked as the document is read or built, and the parse fails with a {@link ParseBudgetExceededException}
+ * as soon as one is exceeded, without reading the rest of the document. An alias counts towards the node limit
+ * with every node of the subtree it refers to, since anything which walks the model (such as serializing it) walks
+ * that subtree again for each alias.
+ * <p>
+ * The default, {@link #unlimited()}, imposes no limits beyond SnakeYAML's own, and each {@code with} method
+ * returns a budget with one more. Instances are immutable.
+ */
+final class ParseBudget {
+
+    /**
+     * The limits of a budget.
+     */
+    enum Limit {
+        INPUT_BYTES("document size in bytes"),
+        DEPTH("nesting depth"),
+        NODES("number of nodes"),
+        ALIASES("number of aliases"),
+        MODEL_OBJECTS("number of model objects");
+
+        private final String description;
+
+        Limit(String description) {
+            this.description = description;
+        }
+
+        String description() {
+            return description;
+        }
+    }
+
+    private static final ParseBudget UNLIMITED = new ParseBudget(Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, Collections.emptyMap());
+
+    private final long maxInputBytes;
+    private final int maxDepth;
+    private final long maxNodes;
+    private final int maxAliases;
+    private final int maxModelObjects;
+    private final Map<Class<?>, Integer> maxModelObjectsByType;
+
+    private ParseBudget(long maxInputBytes, int maxDepth, long maxNodes, int maxAliases, int maxModelObjects,
+            Map<Class<?>, Integer> maxModelObjectsByType) {
+        this.maxInputBytes = maxInputBytes;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.maxAliases = maxAliases;
+        this.maxModelObjects = maxModelObjects;
+        this.maxModelObjectsByType = maxModelObjectsByType;
+    }
+
+    /**
+     * Returns the budget with no limits.
+     *
+     * @return the budget
+     */
+    static ParseBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Returns a budget which also limits the size of the document.
+     *
+     * @param max the maximum number of bytes
+     * @return the budget
+     */
+    ParseBudget withMaxInputBytes(long max) {
+        return new ParseBudget(positive(max), maxDepth, maxNodes, maxAliases, maxModelObjects,
+                maxModelObjectsByType);
+    }
+
+    /**
+     * Returns a budget which also limits how deeply the mappings and sequences of the document nest.
+     *
+     * @param max the maximum depth, the root mapping being at depth 1
+     * @return the budget
+     */
+    ParseBudget withMaxDepth(int max) {
+        return new ParseBudget(maxInputBytes, (int) positive(max), maxNodes, maxAliases, maxModelObjects,
+                maxModelObjectsByType);
+    }
+
+    /**
+     * Returns a budget which also limits the number of nodes (scalars, mappings, and sequences) in the document,
+     * counting those an alias refers to each time.
+     *
+     * @param max the maximum number of nodes
+     * @return the budget
+     */
+    ParseBudget withMaxNodes(long max) {
+        return new ParseBudget(maxInputBytes, maxDepth, positive(max), maxAliases, maxModelObjects,
+                maxModelObjectsByType);
+    }
+
+    /**
+     * Returns a budget which also limits the number of aliases in the document. A higher limit than SnakeYAML's own
+     * default of 50 aliases of mappings and sequences raises that one too.
+     *
+     * @param max the maximum number of aliases, which may be 0
+     * @return the budget
+     */
+    ParseBudget withMaxAliases(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("max must not be negative but was " + max);
+        }
+        return new ParseBudget(maxInputBytes, maxDepth, maxNodes, max, maxModelObjects, maxModelObjectsByType);
+    }
+
+    /**
+     * Returns a budget which also limits the number of model objects of each type built from the document, except
+     * for types given their own limit by {@link #withMaxModelObjects(Class, int)}. The root {@code OpenAPI} object
+     * is not counted.
+     *
+     * @param max the maximum number of objects of each type
+     * @return the budget
+     */
+    ParseBudget withMaxModelObjects(int max) {
+        return new ParseBudget(maxInputBytes, maxDepth, maxNodes, maxAliases, (int) positive(max),
+                maxModelObjectsByType);
+    }
+
+    /**
+     * Returns a budget which also limits the number of model objects of one type built from the document.
+     *
+     * @param type the MP OpenAPI model interface, such as {@code Schema.class}
+     * @param max the maximum number of objects of the type
+     * @return the budget
+     */
+    ParseBudget withMaxModelObjects(Class<?> type, int max) {
+        Map<Class<?>, Integer> result = new HashMap<>(maxModelObjectsByType);
+        result.put(type, (int) positive(max));
+        return new ParseBudget(maxInputBytes, maxDepth, maxNodes, maxAliases, maxModelObjects,
+                Collections.unmodifiableMap(result));
+    }
+
+    /**
+     * Starts spending the budget on one parse.
+     */
+    Tracker tracker() {
+        return new Tracker();
+    }
+
+    private static long positive(long max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("max must be positive but was " + max);
+        }
+        return max;
+    }
+
+    /**
+     * Tracks what one parse has spent. It is used on the parsing thread only (or, for a published document, on the
+     * thread delivering each buffer until the last has arrived), except that the pool threads of a parallel parse
+     * count the model objects they build too.
+     */
+    final class Tracker {
+
+        private long inputBytes;
+        private int depth;
+        private long nodes;
+        private int aliases;
+        // The node counts of the anchored nodes, and of the collections being composed with the anchors they have.
+        private final Map<String, Long> anchoredNodes = new HashMap<>();
+        private long[] collectionStarts = new long[16];
+        private String[] collectionAnchors = new String[16];
+        private final Map<Class<?>, int[]> modelObjects = new IdentityHashMap<>();
+
+        /**
+         * Returns the loader options the composer needs to allow as many aliases as the budget does.
+         */
+        LoaderOptions loaderOptions() {
+            LoaderOptions options = new LoaderOptions();
+            if (maxAliases != Integer.MAX_VALUE && maxAliases > options.getMaxAliasesForCollections()) {
+                options.setMaxAliasesForCollections(maxAliases);
+            }
+            return options;
+        }
+
+        /**
+         * Wraps the input of a parse to limit its size.
+         */
+        InputStream input(InputStream is) {
+            if (maxInputBytes == Long.MAX_VALUE) {
+                return is;
+            }
+            return new FilterInputStream(is) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        input(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) {
+                        input(n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        /**
+         * Notes that more of the document has been read, by {@link #input} or as the buffers of a published document
+         * arrive.
+         */
+        void input(int n) {
+            inputBytes += n;
+            if (inputBytes > maxInputBytes) {
+                throw new ParseBudgetExceededException(Limit.INPUT_BYTES, maxInputBytes, null);
+            }
+        }
+
+        /**
+         * Wraps the events a parse composes to limit the depth, nodes, and aliases.
+         */
+        org.yaml.snakeyaml.parser.Parser events(org.yaml.snakeyaml.parser.Parser events) {
+            return new org.yaml.snakeyaml.parser.Parser() {
+                @Override
+                public boolean checkEvent(Event.ID choice) {
+                    return events.checkEvent(choice);
+                }
+
+                @Override
+                public Event peekEvent() {
+                    return events.peekEvent();
+                }
+
+                @Override
+                public Event getEvent() {
+                    Event event = events.getEvent();
+                    if (event instanceof ScalarEvent) {
+                        node(1);
+                        String anchor = ((ScalarEvent) event).getAnchor();
+                        if (anchor != null) {
+                            anchoredNodes.put(anchor, 1L);
+                        }
+                    } else if (event instanceof CollectionStartEvent) {
+                        node(1);
+                        start(((CollectionStartEvent) event).getAnchor());
+                    } else if (event instanceof CollectionEndEvent) {
+                        end();
+                    } else if (event instanceof AliasEvent) {
+                        alias(((AliasEvent) event).getAnchor());
+                    }
+                    return event;
+                }
+            };
+        }
+
+        /**
+         * Notes that construction is about to build a model object.
+         */
+        synchronized void constructing(Class<?> type) {
+            int[] count = modelObjects.computeIfAbsent(type, t -> new int[1]);
+            int max = maxModelObjectsByType.getOrDefault(type, maxModelObjects);
+            if (++count[0] > max) {
+                throw new ParseBudgetExceededException(Limit.MODEL_OBJECTS, max, type);
+            }
+        }
+
+        private void node(long n) {
+            nodes += n;
+            if (nodes > maxNodes || nodes < 0) {
+                throw new ParseBudgetExceededException(Limit.NODES, maxNodes, null);
+            }
+        }
+
+        private void start(String anchor) {
+            if (depth == maxDepth) {
+                throw new ParseBudgetExceededException(Limit.DEPTH, maxDepth, null);
+            }
+            if (depth == collectionStarts.length) {
+                collectionStarts = Arrays.copyOf(collectionStarts, depth * 2);
+                collectionAnchors = Arrays.copyOf(collectionAnchors, depth * 2);
+            }
+            // The collection's own node has been counted already.
+            collectionStarts[depth] = nodes - 1;
+            collectionAnchors[depth] = anchor;
+            depth++;
+        }
+
+        private void end() {
+            depth--;
+            String anchor = collectionAnchors[depth];
+            if (anchor != null) {
+                anchoredNodes.put(anchor, nodes - collectionStarts[depth]);
+                collectionAnchors[depth] = null;
+            }
+        }
+
+        private void alias(String anchor) {
+            if (++aliases > maxAliases) {
+                throw new ParseBudgetExceededException(Limit.ALIASES, maxAliases, null);
+            }
+            // An unknown anchor is left for the composer to report.
+            node(anchoredNodes.getOrDefault(anchor, 0L));
+        }
+    }
+}
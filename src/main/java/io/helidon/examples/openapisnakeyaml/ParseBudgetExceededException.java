@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Thrown by {@link Parser#parse(java.io.InputStream, ParseOptions)} as soon as a document exceeds one of the limits
+ * of its {@link ParseBudget}.
+ */
+final class ParseBudgetExceededException extends YAMLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ParseBudget.Limit limit;
+    private final long max;
+    private final Class<?> type;
+
+    ParseBudgetExceededException(ParseBudget.Limit limit, long max, Class<?> type) {
+        super("Document exceeds the maximum " + limit.description() + " of " + max
+                + (type == null ? "" : " for " + type.getSimpleName()));
+        this.limit = limit;
+        this.max = max;
+        this.type = type;
+    }
+
+    /**
+     * Returns the limit which the document exceeded.
+     *
+     * @return the limit
+     */
+    ParseBudget.Limit limit() {
+        return limit;
+    }
+
+    /**
+     * Returns the maximum which the document exceeded.
+     *
+     * @return the maximum
+     */
+    long max() {
+        return max;
+    }
+
+    /**
+     * Returns the type of model object of which the document had too many.
+     *
+     * @return the MP OpenAPI model interface, or {@code null} unless the limit is
+     * {@link ParseBudget.Limit#MODEL_OBJECTS}
+     */
+    Class<?> type() {
+        return type;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * How {@link Parser#parse(java.io.InputStream, ParseOptions)} reads a document and builds its model.
+ * <p>
+ * The default, {@link #defaults()}, builds the whole model eagerly on the calling thread, as
+ * {@link Parser#parse(java.io.InputStream)} does, and each {@code with} method returns options with one more
+ * feature. The features combine freely, except that a model is built either {@link #lazily()} or
+ * {@link #inParallel in parallel}, so each of those replaces the other. Instances are immutable.
+ */
+final class ParseOptions {
+
+    private static final ParseOptions DEFAULTS = new ParseOptions(null, null, null, false, null);
+
+    private final StringPool strings;
+    private final Projection projection;
+    private final ParseBudget budget;
+    private final boolean lazy;
+    private final ForkJoinPool pool;
+
+    private ParseOptions(StringPool strings, Projection projection, ParseBudget budget, boolean lazy,
+            ForkJoinPool pool) {
+        this.strings = strings;
+        this.projection = projection;
+        this.budget = budget;
+        this.lazy = lazy;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the options which build the whole model eagerly on the calling thread.
+     *
+     * @return the options
+     */
+    static ParseOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns options which also look up every string in the model (map keys as well as values) in the specified
+     * pool, so that equal strings share one instance.
+     * <p>
+     * This costs a hash lookup per string while parsing, in return for a smaller model where the document repeats
+     * the same strings many times. Pass a new pool for each parse to share strings within each document, or the
+     * same pool to several parses to share them across documents too.
+     *
+     * @param strings the pool of strings
+     * @return the options
+     */
+    ParseOptions withStrings(StringPool strings) {
+        return new ParseOptions(Objects.requireNonNull(strings, "strings"), projection, budget, lazy, pool);
+    }
+
+    /**
+     * Returns options which build only the part of the document the specified projection selects. The paths,
+     * operations, and components the projection leaves out are dropped from the document's node tree before any
+     * model object is built, so they cost only scanning and composing.
+     *
+     * @param projection the parts of the document to build
+     * @return the options
+     */
+    ParseOptions withProjection(Projection projection) {
+        return new ParseOptions(strings, Objects.requireNonNull(projection, "projection"), budget, lazy, pool);
+    }
+
+    /**
+     * Returns options which also parse within the limits of the specified budget. The parse stops with a
+     * {@link ParseBudgetExceededException} as soon as the document exceeds one of them.
+     *
+     * @param budget the limits on what to read and build
+     * @return the options
+     */
+    ParseOptions withBudget(ParseBudget budget) {
+        return new ParseOptions(strings, projection, Objects.requireNonNull(budget, "budget"), lazy, pool);
+    }
+
+    /**
+     * Returns options which do not build the path items and the component schemas until they are first requested
+     * from the {@code Paths} or the {@code components.schemas} map. Until then, each is kept in the compact form of
+     * {@link DeferredNode} (see {@link LazyMaps}).
+     * <p>
+     * This suits large documents of which only a few paths or schemas are used. It replaces any earlier
+     * {@link #inParallel}.
+     *
+     * @return the options
+     */
+    ParseOptions lazily() {
+        return new ParseOptions(strings, projection, budget, true, null);
+    }
+
+    /**
+     * Returns options which build the entries of {@code paths} and of each map in {@code components} concurrently
+     * on the specified pool once the whole document has been composed. The entries are added to their maps in
+     * document order, so the model is the same as an eager parse's.
+     * <p>
+     * SnakeYAML changes nodes as it builds objects from them, so an entry which contains an anchored node, and so
+     * may share it with other entries through aliases, is built on the calling thread. This replaces any earlier
+     * {@link #lazily()}.
+     *
+     * @param pool the pool on which to build the entries
+     * @return the options
+     */
+    ParseOptions inParallel(ForkJoinPool pool) {
+        return new ParseOptions(strings, projection, budget, false, Objects.requireNonNull(pool, "pool"));
+    }
+
+    StringPool strings() {
+        return strings;
+    }
+
+    Projection projection() {
+        return projection;
+    }
+
+    ParseBudget budget() {
+        return budget;
+    }
+
+    boolean isLazy() {
+        return lazy;
+    }
+
+    ForkJoinPool pool() {
+        return pool;
+    }
+}
@@ -16,19 +16,36 @@
  */
 package io.helidon.examples.openapisnakeyaml;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.io.Writer;
-import java.nio.CharBuffer;
-import java.util.Collections;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntSupplier;
+import java.util.function.UnaryOperator;
 
-import io.helidon.common.CollectionsHelper;
 import io.smallrye.openapi.api.models.ComponentsImpl;
 import io.smallrye.openapi.api.models.ExternalDocumentationImpl;
 import io.smallrye.openapi.api.models.OpenAPIImpl;
@@ -61,6 +78,7 @@ import org.eclipse.microprofile.openapi.models.OpenAPI;
 import org.eclipse.microprofile.openapi.models.Operation;
 import org.eclipse.microprofile.openapi.models.PathItem;
 import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.Reference;
 import org.eclipse.microprofile.openapi.models.callbacks.Callback;
 import org.eclipse.microprofile.openapi.models.examples.Example;
 import org.eclipse.microprofile.openapi.models.headers.Header;
@@ -83,9 +101,12 @@ import org.eclipse.microprofile.openapi.models.servers.ServerVariable;
 import org.eclipse.microprofile.openapi.models.servers.ServerVariables;
 import org.eclipse.microprofile.openapi.models.tags.Tag;
 import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.TypeDescription;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.composer.Composer;
 import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.YAMLException;
 import org.yaml.snakeyaml.introspector.Property;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
@@ -93,151 +114,568 @@ import org.yaml.snakeyaml.nodes.NodeId;
 import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 class Parser {
 
+    static final String REF = "$ref";
+
+    private static final int JSON_DETECTION_LIMIT = 1024;
+
+    /*
+     * Neither Yaml nor the Constructor, Representer, and TypeDescription instances it uses are thread-safe
+     * (TypeDescription, for example, lazily caches property information), so each thread gets its own fully
+     * configured parser and serializer, built once on first use and reused by every later parse or dump on that
+     * thread.
+     */
+    private static final ThreadLocal<CustomConstructor> PARSING_CONSTRUCTOR =
+            ThreadLocal.withInitial(() -> newParsingConstructor(Construction.EAGER));
+    private static final ThreadLocal<Yaml> PARSING_YAML =
+            ThreadLocal.withInitial(() -> new Yaml(PARSING_CONSTRUCTOR.get()));
+    private static final ThreadLocal<CustomConstructor> LAZY_PARSING_CONSTRUCTOR =
+            ThreadLocal.withInitial(() -> newParsingConstructor(Construction.LAZY));
+    private static final ThreadLocal<Yaml> LAZY_PARSING_YAML =
+            ThreadLocal.withInitial(() -> new Yaml(LAZY_PARSING_CONSTRUCTOR.get()));
+    private static final ThreadLocal<CustomConstructor> PARALLEL_PARSING_CONSTRUCTOR =
+            ThreadLocal.withInitial(() -> newParsingConstructor(Construction.PARALLEL));
+    private static final ThreadLocal<Yaml> PARALLEL_PARSING_YAML =
+            ThreadLocal.withInitial(() -> new Yaml(PARALLEL_PARSING_CONSTRUCTOR.get()));
+    private static final Resolver JSON_RESOLVER = new Resolver();
+    private static final Resolver YAML_RESOLVER = new Resolver();
+    private static final ThreadLocal<StreamingYAMLSerializer> YAML_SERIALIZER =
+            ThreadLocal.withInitial(() -> new StreamingYAMLSerializer(dumperOptions()));
+
+    private static volatile ParserListener listener = ParserListener.NONE;
+
+    /**
+     * Sets the listener to receive the statistics of every parse and serialization from now on.
+     *
+     * @param listener the listener, or {@link ParserListener#NONE} to stop recording statistics
+     */
+    static void setListener(ParserListener listener) {
+        Parser.listener = Objects.requireNonNull(listener, "listener");
+    }
+
+    static ParserListener listener() {
+        return listener;
+    }
+
+    /**
+     * Parses an OpenAPI document. Input which starts with <code>{</code> followed by <code>"</code> or
+     * <code>}</code> (ignoring white space and any byte order mark) is read as UTF-8 JSON using {@link JSONParser};
+     * anything else, such as a YAML flow mapping with plain keys ({@code {openapi: 3.0.0}}), as YAML.
+     *
+     * @param is the document
+     * @return the OpenAPI model
+     */
     static OpenAPI parse(InputStream is) {
-        return parseYAML(is);
+        return parse(is, PARSING_YAML.get(), PARSING_CONSTRUCTOR.get());
+    }
+
+    /**
+     * Parses an OpenAPI document as {@link #parse(InputStream)} does, with the specified options.
+     *
+     * @param is the document
+     * @param options how to read the document and build the model
+     * @return the OpenAPI model
+     * @throws ParseBudgetExceededException if the options have a budget and the document exceeds a limit
+     */
+    static OpenAPI parse(InputStream is, ParseOptions options) {
+        CustomConstructor constructor = constructor(options);
+        constructor.start(options, options.budget() == null ? null : options.budget().tracker());
+        try {
+            return parse(is, options.isLazy() ? LAZY_PARSING_YAML.get()
+                    : options.pool() != null ? PARALLEL_PARSING_YAML.get() : PARSING_YAML.get(), constructor);
+        } catch (YAMLException e) {
+            throw budgetExceeded(e);
+        } finally {
+            constructor.finish();
+        }
+    }
+
+    /**
+     * Parses an OpenAPI document published as a stream of UTF-8 byte buffers, without holding a thread while the
+     * stream is in progress. The buffers are decoded as they arrive, one requested at a time, and once the stream
+     * completes the document is parsed as {@link #parse(InputStream)} does, in a task on the specified executor.
+     * <p>
+     * Cancelling the returned future cancels the subscription.
+     *
+     * @param publisher the document
+     * @param executor the executor on which to parse the document once it has all arrived
+     * @return the OpenAPI model, completed exceptionally if the stream fails or the document is not valid UTF-8,
+     * JSON, or YAML
+     */
+    static CompletableFuture<OpenAPI> parse(Flow.Publisher<ByteBuffer> publisher, Executor executor) {
+        return parse(publisher, executor, ParseOptions.defaults());
+    }
+
+    /**
+     * Parses an OpenAPI document published as a stream of UTF-8 byte buffers as
+     * {@link #parse(Flow.Publisher, Executor)} does, with the specified options. If they have a budget, the size of
+     * the document is checked as each buffer arrives, so the subscription is cancelled as soon as the document is
+     * too large, before more of it is held; the other limits are checked as the document is parsed.
+     *
+     * @param publisher the document
+     * @param executor the executor on which to parse the document once it has all arrived
+     * @param options how to read the document and build the model
+     * @return the OpenAPI model, completed exceptionally as {@code parse(Flow.Publisher, Executor)}'s is, or with a
+     * {@link ParseBudgetExceededException} if the document exceeds a limit
+     */
+    static CompletableFuture<OpenAPI> parse(Flow.Publisher<ByteBuffer> publisher, Executor executor,
+            ParseOptions options) {
+        DocumentSubscriber subscriber = new DocumentSubscriber(executor, options);
+        publisher.subscribe(subscriber);
+        return subscriber.result();
+    }
+
+    /**
+     * Parses a document which has already been read and decoded, as JSON or as YAML, with the specified options and
+     * within what is left of their budget. The caller has counted the size of the document against the budget.
+     *
+     * @param reader the document
+     * @param json whether to read the document as JSON, using {@link JSONParser}
+     * @param options how to build the model
+     * @param budget the tracker of the options' budget, or {@code null} if they have none
+     * @return the OpenAPI model
+     * @throws ParseBudgetExceededException if the document exceeds a limit
+     */
+    static OpenAPI parse(Reader reader, boolean json, ParseOptions options, ParseBudget.Tracker budget) {
+        ParserListener listener = Parser.listener;
+        ParserStatistics.Recorder recorder = listener == ParserListener.NONE ? null
+                : new ParserStatistics.Recorder();
+        CustomConstructor constructor = constructor(options);
+        constructor.start(options, budget);
+        try {
+            return parseComposed(recorder == null ? reader : recorder.input(reader), json, constructor, recorder,
+                    listener);
+        } catch (YAMLException e) {
+            throw budgetExceeded(e);
+        } finally {
+            constructor.finish();
+        }
+    }
+
+    /**
+     * Returns this thread's parsing constructor for the way the options build the model.
+     */
+    private static CustomConstructor constructor(ParseOptions options) {
+        return options.isLazy() ? LAZY_PARSING_CONSTRUCTOR.get()
+                : options.pool() != null ? PARALLEL_PARSING_CONSTRUCTOR.get() : PARSING_CONSTRUCTOR.get();
+    }
+
+    /**
+     * Returns the budget's exception, if that is what a parse failed with, rather than the exception construction
+     * wraps it in (as it wraps whatever a nested object's construction throws).
+     */
+    private static RuntimeException budgetExceeded(YAMLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ParseBudgetExceededException) {
+                return (ParseBudgetExceededException) cause;
+            }
+        }
+        return e;
+    }
+
+    private static OpenAPI parse(InputStream is, Yaml yaml, CustomConstructor constructor) {
+        ParserListener listener = Parser.listener;
+        if (listener != ParserListener.NONE || constructor.budget != null) {
+            return parseComposed(is, constructor, listener);
+        }
+        BufferedInputStream input = new BufferedInputStream(is);
+        return isJSON(input)
+                ? (OpenAPI) constructor.constructRoot(composeJSON(input, UnaryOperator.identity(),
+                        new LoaderOptions()))
+                : yaml.loadAs(input, OpenAPI.class);
+    }
+
+    /**
+     * Parses as {@link #parse(InputStream, Yaml, CustomConstructor)} does, but composing the events itself (as
+     * {@code Yaml.loadAs} would for YAML) so that it can check them against the constructor's budget, if any, and
+     * time and count them for the listener, if any.
+     */
+    private static OpenAPI parseComposed(InputStream is, CustomConstructor constructor, ParserListener listener) {
+        ParserStatistics.Recorder recorder = listener == ParserListener.NONE ? null
+                : new ParserStatistics.Recorder();
+        ParseBudget.Tracker budget = constructor.budget;
+        InputStream source = budget == null ? is : budget.input(is);
+        BufferedInputStream input = new BufferedInputStream(recorder == null ? source : recorder.input(source));
+        UnaryOperator<org.yaml.snakeyaml.parser.Parser> wrapper = events(budget, recorder);
+        LoaderOptions options = budget == null ? new LoaderOptions() : budget.loaderOptions();
+        Node root = isJSON(input)
+                ? composeJSON(input, wrapper, options)
+                : composeYAML(new UnicodeReader(input), wrapper, options);
+        return constructComposed(root, constructor, recorder, listener);
+    }
+
+    /**
+     * Parses a document which is known to be JSON or YAML as {@link #parseComposed(InputStream, CustomConstructor,
+     * ParserListener)} does. The caller has wrapped the reader, or the stream beneath it, to count its input for the
+     * recorder, if any.
+     */
+    private static OpenAPI parseComposed(Reader reader, boolean json, CustomConstructor constructor,
+            ParserStatistics.Recorder recorder, ParserListener listener) {
+        ParseBudget.Tracker budget = constructor.budget;
+        UnaryOperator<org.yaml.snakeyaml.parser.Parser> wrapper = events(budget, recorder);
+        LoaderOptions options = budget == null ? new LoaderOptions() : budget.loaderOptions();
+        Node root = json
+                ? new Composer(wrapper.apply(new JSONParser(reader)), JSON_RESOLVER, options).getSingleNode()
+                : composeYAML(reader, wrapper, options);
+        return constructComposed(root, constructor, recorder, listener);
+    }
+
+    /**
+     * Returns what wraps the events of a parse to check them against a budget and record them, either of which may
+     * be {@code null}.
+     */
+    private static UnaryOperator<org.yaml.snakeyaml.parser.Parser> events(ParseBudget.Tracker budget,
+            ParserStatistics.Recorder recorder) {
+        return events -> {
+            if (budget != null) {
+                events = budget.events(events);
+            }
+            return recorder == null ? events : recorder.events(events);
+        };
+    }
+
+    private static OpenAPI constructComposed(Node root, CustomConstructor constructor,
+            ParserStatistics.Recorder recorder, ParserListener listener) {
+        constructor.recorder = recorder;
+        OpenAPI result;
+        try {
+            result = (OpenAPI) constructor.constructRoot(root);
+        } finally {
+            constructor.recorder = null;
+        }
+        if (recorder != null) {
+            listener.parsed(recorder.parsed());
+        }
+        return result;
     }
 
     static void toYAML(OpenAPI openAPI, Writer writer) {
+        ParserListener listener = Parser.listener;
+        if (listener == ParserListener.NONE) {
+            YAML_SERIALIZER.get().serialize(openAPI, new TagSuppressingWriter(writer));
+            return;
+        }
+        ParserStatistics.Recorder recorder = new ParserStatistics.Recorder();
+        YAML_SERIALIZER.get().serialize(openAPI, new TagSuppressingWriter(writer, recorder));
+        listener.serialized(recorder.serialized());
+    }
+
+    static void toJSON(OpenAPI openAPI, Writer writer) {
+        ParserListener listener = Parser.listener;
+        if (listener == ParserListener.NONE) {
+            YAML_SERIALIZER.get().serialize(openAPI, new JSONEmitter(writer));
+            return;
+        }
+        ParserStatistics.Recorder recorder = new ParserStatistics.Recorder();
+        YAML_SERIALIZER.get().serialize(openAPI, new JSONEmitter(new RecordingWriter(writer, recorder)));
+        listener.serialized(recorder.serialized());
+    }
+
+    static void toJSON(OpenAPI openAPI, OutputStream os) {
+        toJSON(openAPI, new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8)));
+    }
+
+    static OpenAPI parseYAML(InputStream inputStream) {
+        ParserListener listener = Parser.listener;
+        if (listener == ParserListener.NONE) {
+            return PARSING_YAML.get().loadAs(inputStream, OpenAPI.class);
+        }
+        ParserStatistics.Recorder recorder = new ParserStatistics.Recorder();
+        return parseComposed(new UnicodeReader(recorder.input(inputStream)), false, PARSING_CONSTRUCTOR.get(),
+                recorder, listener);
+    }
+
+    static OpenAPI parseYAML(Reader reader) {
+        ParserListener listener = Parser.listener;
+        if (listener == ParserListener.NONE) {
+            return PARSING_YAML.get().loadAs(reader, OpenAPI.class);
+        }
+        ParserStatistics.Recorder recorder = new ParserStatistics.Recorder();
+        return parseComposed(recorder.input(reader), false, PARSING_CONSTRUCTOR.get(), recorder, listener);
+    }
+
+    static OpenAPI parseJSON(Reader reader) {
+        ParserListener listener = Parser.listener;
+        if (listener == ParserListener.NONE) {
+            return parseJSON(reader, PARSING_CONSTRUCTOR.get());
+        }
+        ParserStatistics.Recorder recorder = new ParserStatistics.Recorder();
+        return parseComposed(recorder.input(reader), true, PARSING_CONSTRUCTOR.get(), recorder, listener);
+    }
+
+    private static OpenAPI parseJSON(Reader reader, Constructor constructor) {
+        constructor.setComposer(new Composer(new JSONParser(reader), JSON_RESOLVER));
+        return (OpenAPI) constructor.getSingleData(OpenAPI.class);
+    }
+
+    private static Node composeJSON(InputStream input, UnaryOperator<org.yaml.snakeyaml.parser.Parser> wrapper,
+            LoaderOptions options) {
+        return new Composer(wrapper.apply(new JSONParser(new InputStreamReader(input, StandardCharsets.UTF_8))),
+                JSON_RESOLVER, options).getSingleNode();
+    }
+
+    private static Node composeYAML(Reader reader, UnaryOperator<org.yaml.snakeyaml.parser.Parser> wrapper,
+            LoaderOptions options) {
+        return new Composer(wrapper.apply(new ParserImpl(new StreamReader(reader))), YAML_RESOLVER, options)
+                .getSingleNode();
+    }
+
+    /**
+     * Composes an OpenAPI document into a node tree without building any model objects, reading it as JSON or YAML
+     * the way {@link #parse} does.
+     *
+     * @param is the document
+     * @return the root node, or {@code null} if the document is empty
+     */
+    static Node compose(InputStream is) {
+        BufferedInputStream input = new BufferedInputStream(is);
+        return isJSON(input)
+                ? composeJSON(input, UnaryOperator.identity(), new LoaderOptions())
+                : composeYAML(new UnicodeReader(input), UnaryOperator.identity(), new LoaderOptions());
+    }
+
+    /**
+     * Composes an OpenAPI document into a node tree as {@link #compose(InputStream)} does, within the limits of the
+     * specified budget on its size, depth, nodes, and aliases.
+     *
+     * @param is the document
+     * @param budget the limits on what to read
+     * @return the root node, or {@code null} if the document is empty
+     * @throws ParseBudgetExceededException if the document exceeds a limit
+     */
+    static Node compose(InputStream is, ParseBudget budget) {
+        ParseBudget.Tracker tracker = budget.tracker();
+        BufferedInputStream input = new BufferedInputStream(tracker.input(is));
+        UnaryOperator<org.yaml.snakeyaml.parser.Parser> wrapper = events(tracker, null);
+        try {
+            return isJSON(input)
+                    ? composeJSON(input, wrapper, tracker.loaderOptions())
+                    : composeYAML(new UnicodeReader(input), wrapper, tracker.loaderOptions());
+        } catch (YAMLException e) {
+            throw budgetExceeded(e);
+        }
+    }
+
+    /**
+     * Builds the model object of the specified type, such as {@code OpenAPI}, {@code PathItem} or {@code Schema},
+     * from a node tree returned by {@link #compose} or part of one.
+     *
+     * @param node the node
+     * @param type the model type
+     * @param <T> the model type
+     * @return the model object
+     */
+    static <T> T construct(Node node, Class<T> type) {
+        node.setType(type);
+        return type.cast(PARSING_CONSTRUCTOR.get().constructSubtree(node));
+    }
+
+    /**
+     * Builds the model object for a node whose construction {@link LazyMaps} deferred.
+     */
+    static Object constructDeferred(DeferredNode node) {
+        return PARSING_CONSTRUCTOR.get().constructSubtree(node.toNode());
+    }
+
+    private static boolean isJSON(BufferedInputStream input) {
+        input.mark(JSON_DETECTION_LIMIT);
+        try {
+            // Skip a UTF-8 byte order mark.
+            if (input.read() != 0xEF || input.read() != 0xBB || input.read() != 0xBF) {
+                input.reset();
+            }
+            return isJSON(() -> {
+                try {
+                    return input.read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            throw new YAMLException(e);
+        } finally {
+            try {
+                input.reset();
+            } catch (IOException e) {
+                throw new YAMLException(e);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a document is JSON from its first characters (or bytes, which are the same for the characters
+     * that matter), after any byte order mark: a <code>{</code> followed by the <code>"</code> of a key or the
+     * <code>}</code> of an empty object, ignoring white space. That tells JSON from a YAML flow mapping, whose keys
+     * are usually plain, without reading further.
+     *
+     * @param next supplies the next character, or -1 at the end of the document
+     * @return whether to read the document as JSON
+     */
+    static boolean isJSON(IntSupplier next) {
+        boolean inObject = false;
+        for (int i = 0; i < JSON_DETECTION_LIMIT; i++) {
+            int c = next.getAsInt();
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                if (inObject) {
+                    return c == '"' || c == '}';
+                }
+                if (c != '{') {
+                    return false;
+                }
+                inObject = true;
+            }
+        }
+        return false;
+    }
+
+    static DumperOptions dumperOptions() {
         DumperOptions opts = new DumperOptions();
         opts.setIndent(2);
         opts.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        Yaml yaml = new Yaml(new CustomRepresenter(), opts);
-        yaml.dump(openAPI, new TagSuppressingWriter(writer));
+        return opts;
     }
 
-    private static OpenAPI parseYAML(InputStream inputStream) {
+    private static CustomConstructor newParsingConstructor(Construction construction) {
 
-        TypeDescription openAPITD = new TypeDescription(OpenAPI.class, OpenAPIImpl.class);
+        TypeDescription openAPITD = new ModelTypeDescription(OpenAPI.class, OpenAPIImpl.class);
         openAPITD.addPropertyParameters("security", SecurityRequirement.class);
         openAPITD.addPropertyParameters("servers", Server.class);
         openAPITD.addPropertyParameters("tags", Tag.class);
 
-        Constructor topConstructor = new CustomConstructor(openAPITD);
+        CustomConstructor topConstructor = new CustomConstructor(openAPITD, construction);
+        topConstructor.setPropertyUtils(new ModelAccessors.ModelPropertyUtils());
 
-        topConstructor.addTypeDescription(new TypeDescription(Info.class, InfoImpl.class));
-        topConstructor.addTypeDescription(new TypeDescription(License.class, LicenseImpl.class));
-        topConstructor.addTypeDescription(new TypeDescription(Content.class, ContentImpl.class));
-        topConstructor.addTypeDescription(new TypeDescription(ExternalDocumentation.class, ExternalDocumentationImpl.class));
+        topConstructor.addTypeDescription(new ModelTypeDescription(Info.class, InfoImpl.class));
+        topConstructor.addTypeDescription(new ModelTypeDescription(License.class, LicenseImpl.class));
+        topConstructor.addTypeDescription(new ModelTypeDescription(Content.class, ContentImpl.class));
+        topConstructor.addTypeDescription(new ModelTypeDescription(ExternalDocumentation.class, ExternalDocumentationImpl.class));
 
-        TypeDescription serverTD = new TypeDescription(Server.class, ServerImpl.class);
+        TypeDescription serverTD = new ModelTypeDescription(Server.class, ServerImpl.class);
         topConstructor.addTypeDescription(serverTD);
 
-        topConstructor.addTypeDescription(new TypeDescription(ServerVariables.class, ServerVariablesImpl.class));
+        topConstructor.addTypeDescription(new ModelTypeDescription(ServerVariables.class, ServerVariablesImpl.class));
 
-        TypeDescription serverVariableTD = new TypeDescription(ServerVariable.class, ServerVariableImpl.class);
+        TypeDescription serverVariableTD = new ModelTypeDescription(ServerVariable.class, ServerVariableImpl.class);
         serverVariableTD.addPropertyParameters("enumeration", String.class);
         topConstructor.addTypeDescription(serverVariableTD);
 
-        TypeDescription securityRequirementTD = new TypeDescription(SecurityRequirement.class, SecurityRequirementImpl.class);
+        TypeDescription securityRequirementTD = new ModelTypeDescription(SecurityRequirement.class, SecurityRequirementImpl.class);
         securityRequirementTD.addPropertyParameters("scheme", String.class);
         securityRequirementTD.addPropertyParameters("schemes", String.class, String.class);
         topConstructor.addTypeDescription(securityRequirementTD);
 
-        topConstructor.addTypeDescription(new TypeDescription(Tag.class, TagImpl.class));
+        topConstructor.addTypeDescription(new ModelTypeDescription(Tag.class, TagImpl.class));
 
-        TypeDescription pathsTD = new TypeDescription(Paths.class, PathsImpl.class);
+        TypeDescription pathsTD = new ModelTypeDescription(Paths.class, PathsImpl.class);
         pathsTD.addPropertyParameters("pathItems", String.class, PathItem.class);
         topConstructor.addTypeDescription(pathsTD);
 
-        TypeDescription pathItemTD = new TypeDescription(PathItem.class, PathItemImpl.class);
+        TypeDescription pathItemTD = new ModelTypeDescription(PathItem.class, PathItemImpl.class);
         // The Operation method names have upper-case HTTP method names (e.g., getPUT) but the
         // yaml property names are lower-case (e.g., 'put').
         for (PathItem.HttpMethod m : PathItem.HttpMethod.values()) {
-            pathItemTD.substituteProperty(m.name().toLowerCase(), Operation.class, getter(m), setter(m));
+            pathItemTD.substituteProperty(new ModelAccessors.AccessorSubstitute(m.name().toLowerCase(),
+                    ModelAccessors.property(PathItem.class, m.name())));
         }
         pathItemTD.addPropertyParameters("servers", Server.class);
         pathItemTD.addPropertyParameters("parameters", Parameter.class);
-        topConstructor.addTypeDescription(pathItemTD);
+        topConstructor.addTypeDescription(withRef(pathItemTD));
 
-        TypeDescription operationTD = new TypeDescription(Operation.class, OperationImpl.class);
+        TypeDescription operationTD = new ModelTypeDescription(Operation.class, OperationImpl.class);
         operationTD.addPropertyParameters("callbacks", String.class, Callback.class);
         operationTD.addPropertyParameters("security", SecurityRequirement.class);
         operationTD.addPropertyParameters("servers", Server.class);
         operationTD.addPropertyParameters("tags", String.class);
         topConstructor.addTypeDescription(operationTD);
 
-        topConstructor.addTypeDescription(new TypeDescription(APIResponses.class, APIResponsesImpl.class));
-
-        TypeDescription componentsTD = new TypeDescription(Components.class, ComponentsImpl.class);
-        componentsTD.addPropertyParameters("schemas", String.class, Schema.class);
-        componentsTD.addPropertyParameters("responses", String.class, APIResponse.class);
-        componentsTD.addPropertyParameters("parameters", String.class, Parameter.class);
-        componentsTD.addPropertyParameters("examples", String.class, Example.class);
-        componentsTD.addPropertyParameters("requestBodies", String.class, RequestBody.class);
-        componentsTD.addPropertyParameters("headers", String.class, Header.class);
-        componentsTD.addPropertyParameters("securitySchemes", String.class, SecurityScheme.class);
-        componentsTD.addPropertyParameters("links", String.class, Link.class);
-        componentsTD.addPropertyParameters("callbacks", String.class, Callback.class);
+        topConstructor.addTypeDescription(new ModelTypeDescription(APIResponses.class, APIResponsesImpl.class));
+
+        TypeDescription componentsTD = new ModelTypeDescription(Components.class, ComponentsImpl.class);
+        Class<?> componentMapType = construction == Construction.PARALLEL ? SiblingMap.class : null;
+        addMapProperty(componentsTD, "schemas", Schema.class,
+                construction == Construction.LAZY ? LazyMaps.LazySchemas.class : componentMapType);
+        addMapProperty(componentsTD, "responses", APIResponse.class, componentMapType);
+        addMapProperty(componentsTD, "parameters", Parameter.class, componentMapType);
+        addMapProperty(componentsTD, "examples", Example.class, componentMapType);
+        addMapProperty(componentsTD, "requestBodies", RequestBody.class, componentMapType);
+        addMapProperty(componentsTD, "headers", Header.class, componentMapType);
+        addMapProperty(componentsTD, "securitySchemes", SecurityScheme.class, componentMapType);
+        addMapProperty(componentsTD, "links", Link.class, componentMapType);
+        addMapProperty(componentsTD, "callbacks", Callback.class, componentMapType);
         topConstructor.addTypeDescription(componentsTD);
 
-        TypeDescription schemaTD = TypeDescriptionWithEnums.newInstance(Schema.class, SchemaImpl.class)
-                .addEnum("type", Schema.SchemaType::valueOf);
+        TypeDescription schemaTD = TypeDescriptionWithEnums.newInstance(Schema.class, SchemaImpl.class);
         schemaTD.addPropertyParameters("properties", String.class, Schema.class);
         schemaTD.addPropertyParameters("required", String.class);
         schemaTD.addPropertyParameters("allOf", Schema.class);
         schemaTD.addPropertyParameters("anyOf", Schema.class);
         schemaTD.addPropertyParameters("oneOf", Schema.class);
-        topConstructor.addTypeDescription(schemaTD);
+        topConstructor.addTypeDescription(withRef(schemaTD));
 
-        TypeDescription apiResponseTD = new TypeDescription(APIResponse.class, APIResponseImpl.class);
+        TypeDescription apiResponseTD = new ModelTypeDescription(APIResponse.class, APIResponseImpl.class);
         apiResponseTD.addPropertyParameters("headers", String.class, Header.class);
         apiResponseTD.addPropertyParameters("links", String.class, Link.class);
-        topConstructor.addTypeDescription(apiResponseTD);
+        topConstructor.addTypeDescription(withRef(apiResponseTD));
 
-        TypeDescription parameterTD = TypeDescriptionWithEnums.newInstance(Parameter.class, ParameterImpl.class)
-            .addEnum("in", Parameter.In::valueOf);
+        TypeDescription parameterTD = TypeDescriptionWithEnums.newInstance(Parameter.class, ParameterImpl.class);
         parameterTD.addPropertyParameters("examples", String.class, Example.class);
-        topConstructor.addTypeDescription(parameterTD);
+        topConstructor.addTypeDescription(withRef(parameterTD));
 
-        topConstructor.addTypeDescription(new TypeDescription(Example.class, ExampleImpl.class));
-        topConstructor.addTypeDescription(new TypeDescription(RequestBody.class, RequestBodyImpl.class));
-        topConstructor.addTypeDescription(new TypeDescription(Content.class, ContentImpl.class));
+        topConstructor.addTypeDescription(withRef(new ModelTypeDescription(Example.class, ExampleImpl.class)));
+        topConstructor.addTypeDescription(withRef(new ModelTypeDescription(RequestBody.class, RequestBodyImpl.class)));
+        topConstructor.addTypeDescription(new ModelTypeDescription(Content.class, ContentImpl.class));
 
-        TypeDescription mediaTypeTD = new TypeDescription(MediaType.class, MediaTypeImpl.class);
+        TypeDescription mediaTypeTD = new ModelTypeDescription(MediaType.class, MediaTypeImpl.class);
         mediaTypeTD.addPropertyParameters("encoding", String.class, Encoding.class);
         mediaTypeTD.addPropertyParameters("examples", String.class, Example.class);
         topConstructor.addTypeDescription(mediaTypeTD);
 
-        TypeDescription encodingTD = TypeDescriptionWithEnums.newInstance(Encoding.class, EncodingImpl.class)
-                .addEnum("style", Encoding.Style::valueOf);
+        TypeDescription encodingTD = TypeDescriptionWithEnums.newInstance(Encoding.class, EncodingImpl.class);
         encodingTD.addPropertyParameters("headers", String.class, Header.class);
         topConstructor.addTypeDescription(encodingTD);
 
-        TypeDescription headerTD = TypeDescriptionWithEnums.newInstance(Header.class,
-                HeaderImpl.class)
-                    .addEnum("in", Parameter.In::valueOf)
-                    .addEnum("style", Parameter.Style::valueOf);
+        TypeDescription headerTD = TypeDescriptionWithEnums.newInstance(Header.class, HeaderImpl.class);
         headerTD.addPropertyParameters("examples", String.class, Example.class);
-        topConstructor.addTypeDescription(headerTD);
+        topConstructor.addTypeDescription(withRef(headerTD));
 
-        topConstructor.addTypeDescription(TypeDescriptionWithEnums.newInstance(SecurityScheme.class, SecuritySchemeImpl.class)
-                .addEnum("in", SecurityScheme.In::valueOf)
-                .addEnum("type", SecurityScheme.Type::valueOf));
-        topConstructor.addTypeDescription(new TypeDescription(Link.class, LinkImpl.class));
+        topConstructor.addTypeDescription(withRef(TypeDescriptionWithEnums.newInstance(SecurityScheme.class,
+                SecuritySchemeImpl.class)));
+        topConstructor.addTypeDescription(withRef(new ModelTypeDescription(Link.class, LinkImpl.class)));
 
-        TypeDescription callbackTD = new TypeDescription(Callback.class, CallbackImpl.class);
+        TypeDescription callbackTD = new ModelTypeDescription(Callback.class, CallbackImpl.class);
         callbackTD.addPropertyParameters("pathItems", String.class, PathItem.class);
         topConstructor.addTypeDescription(callbackTD);
 
-        Yaml yaml = new Yaml(topConstructor);
-        OpenAPI result = yaml.loadAs(inputStream, OpenAPI.class);
-        return result;
-    }
-
-    private static String getter(PathItem.HttpMethod method) {
-        return methodName("get", method);
+        return topConstructor;
     }
 
-    private static String setter(PathItem.HttpMethod method) {
-        return methodName("set", method);
+    /**
+     * Maps the {@code $ref} key, which is not a valid Java property name, to the {@code Reference} accessors.
+     */
+    private static TypeDescription withRef(TypeDescription td) {
+        td.substituteProperty(new ModelAccessors.AccessorSubstitute(REF,
+                ModelAccessors.property(Reference.class, "ref")));
+        return td;
     }
 
-    private static String methodName(String operation, PathItem.HttpMethod method) {
-        return operation + method.name();
+    /**
+     * Describes a property holding a map from names to model objects. Unless the map type is {@code null}, the
+     * property's node is given that type, which the {@code CustomConstructor} recognizes in place of a plain map.
+     */
+    private static void addMapProperty(TypeDescription td, String name, Class<?> valueType, Class<?> mapType) {
+        if (mapType == null) {
+            td.addPropertyParameters(name, String.class, valueType);
+        } else {
+            td.substituteProperty(new ModelAccessors.AccessorSubstitute(name, mapType,
+                    ModelAccessors.property(td.getType(), name), String.class, valueType));
+        }
     }
 
     private static class CustomConstructor extends Constructor {
@@ -255,12 +693,162 @@ class Parser {
             childMapOfListTypes.put(SecurityRequirement.class, String.class);
         }
 
-        CustomConstructor(TypeDescription td) {
+        private final Construction construction;
+        // Shares the scalar values of the nodes deferred during one parse without a pool of strings.
+        private final Map<String, String> deferredStrings = new HashMap<>();
+        // The pool for parallel construction during the current parse.
+        private ForkJoinPool pool;
+        // The pool of strings for the current parse, if any.
+        private StringPool strings;
+        // The projection for the current parse, if any, and the entries it selects once the root node is known.
+        private Projection projection;
+        private Projection.Selection selection;
+        // Records the statistics of the current parse, if the parser has a listener.
+        private ParserStatistics.Recorder recorder;
+        // Limits the current parse, if it has a budget.
+        private ParseBudget.Tracker budget;
+
+        CustomConstructor(TypeDescription td, Construction construction) {
             super(td);
+            this.construction = construction;
+            yamlConstructors.put(org.yaml.snakeyaml.nodes.Tag.STR, new ConstructPooledStr());
+        }
+
+        /**
+         * Starts a parse with the specified options.
+         */
+        void start(ParseOptions options, ParseBudget.Tracker budget) {
+            strings = options.strings();
+            projection = options.projection();
+            pool = options.pool();
+            this.budget = budget;
+        }
+
+        /**
+         * Forgets the options of the parse that has finished.
+         */
+        void finish() {
+            strings = null;
+            projection = null;
+            selection = null;
+            pool = null;
+            budget = null;
+        }
+
+        /**
+         * Builds the object for a node outside of a parse, such as a node whose construction was deferred.
+         */
+        Object constructSubtree(Node node) {
+            return constructDocument(node);
+        }
+
+        /**
+         * Builds the object for one entry of a map being built in parallel, on a pool thread, with the strings and
+         * budget of the parse building the map. Whatever this constructor was doing on the pool thread is restored
+         * afterwards, in case the pool ran the entry while that thread waited in a parse of its own.
+         */
+        Object constructSubtree(Node node, StringPool strings, ParseBudget.Tracker budget) {
+            StringPool previousStrings = this.strings;
+            ParseBudget.Tracker previousBudget = this.budget;
+            this.strings = strings;
+            this.budget = budget;
+            try {
+                return constructDocument(node);
+            } finally {
+                this.strings = previousStrings;
+                this.budget = previousBudget;
+            }
+        }
+
+        /**
+         * Builds the model from the root node of a document composed separately, as {@link #getSingleData} would.
+         */
+        Object constructRoot(Node node) {
+            try {
+                if (node == null || org.yaml.snakeyaml.nodes.Tag.NULL.equals(node.getTag())) {
+                    return null;
+                }
+                node.setTag(new org.yaml.snakeyaml.nodes.Tag(OpenAPI.class));
+                return constructDocument(node);
+            } finally {
+                deferredStrings.clear();
+            }
+        }
+
+        @Override
+        public Object getSingleData(Class<?> type) {
+            try {
+                return super.getSingleData(type);
+            } finally {
+                deferredStrings.clear();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Map<Object, Object> newMap(MappingNode node) {
+            if (node.getType() == SiblingMap.class) {
+                return new LinkedHashMap<>();
+            }
+            if (construction == Construction.LAZY) {
+                if (node.getType() == Paths.class) {
+                    return (Map<Object, Object>) (Map<?, ?>) new LazyMaps.LazyPaths();
+                }
+                if (node.getType() == LazyMaps.LazySchemas.class) {
+                    return (Map<Object, Object>) (Map<?, ?>) new LazyMaps.LazySchemas();
+                }
+            }
+            if (isPlainContainer(node.getType(), Map.class)) {
+                return createDefaultMap(node.getValue().size());
+            }
+            return super.newMap(node);
+        }
+
+        @Override
+        protected List<Object> newList(SequenceNode node) {
+            if (isPlainContainer(node.getType(), List.class)) {
+                return createDefaultList(node.getValue().size());
+            }
+            return super.newList(node);
+        }
+
+        /**
+         * Reports whether a mapping or sequence node of the specified type becomes a default {@code LinkedHashMap}
+         * or {@code ArrayList}. The superclass finds that out by trying to instantiate the type, which fails with
+         * an {@code InstantiationException}, stack trace and all, for every such node.
+         */
+        private boolean isPlainContainer(Class<?> type, Class<?> containerType) {
+            return !typeDefinitions.containsKey(type) && (!containerType.isAssignableFrom(type)
+                    || Modifier.isAbstract(type.getModifiers()));
+        }
+
+        @Override
+        protected Object constructObject(Node node) {
+            if (projection != null && selection == null && node.getNodeId() == NodeId.mapping) {
+                // The first mapping node constructed is the root.
+                selection = projection.select((MappingNode) node, this::flattenMapping);
+            }
+            return super.constructObject(node);
+        }
+
+        @Override
+        protected Object constructObjectNoCheck(Node node) {
+            if (budget != null && typeDefinitions.containsKey(node.getType())) {
+                budget.constructing(node.getType());
+            }
+            Object data = super.constructObjectNoCheck(node);
+            if (recorder != null) {
+                // Only now is the type of the root node known.
+                recorder.constructed(node, typeDefinitions.containsKey(node.getType()));
+            }
+            return data;
         }
 
         @Override
         protected void constructMapping2ndStep(MappingNode node, Map<Object, Object> mapping) {
+            if (selection != null) {
+                selection.apply(node);
+            }
             Class<?> parentType = node.getType();
             if (childMapTypes.containsKey(parentType)) {
                 Class<?> childType = childMapTypes.get(parentType);
@@ -280,31 +868,125 @@ class Parser {
                     }
                 });
             }
+            if (construction == Construction.PARALLEL && pool != null
+                    && (parentType == Paths.class || parentType == SiblingMap.class)) {
+                constructInParallel(node, mapping);
+                return;
+            }
+            if (mapping instanceof LazyMaps.Deferring) {
+                flattenMapping(node);
+                LazyMaps.Deferring deferring = (LazyMaps.Deferring) mapping;
+                for (NodeTuple tuple : node.getValue()) {
+                    deferring.defer(String.valueOf(constructObject(tuple.getKeyNode())),
+                            DeferredNode.of(tuple.getValueNode(), this::shareDeferred));
+                }
+                return;
+            }
             super.constructMapping2ndStep(node, mapping);
         }
+
+        private void constructInParallel(MappingNode node, Map<Object, Object> mapping) {
+            flattenMapping(node);
+            List<ForkJoinTask<Object>> values = new ArrayList<>(node.getValue().size());
+            for (NodeTuple tuple : node.getValue()) {
+                Node valueNode = tuple.getValueNode();
+                values.add(hasAnchor(valueNode) ? null
+                        : pool.submit(() -> PARSING_CONSTRUCTOR.get().constructSubtree(valueNode, strings, budget)));
+            }
+            int i = 0;
+            for (NodeTuple tuple : node.getValue()) {
+                ForkJoinTask<Object> value = values.get(i++);
+                mapping.put(constructObject(tuple.getKeyNode()),
+                        value == null ? constructObject(tuple.getValueNode()) : value.join());
+            }
+        }
+
+        /**
+         * Shares the scalar values of a deferred node tree through the pool of strings if there is one, and
+         * otherwise with those of the other trees deferred during the parse.
+         */
+        private String shareDeferred(String value) {
+            if (strings != null) {
+                return strings.intern(value);
+            }
+            String shared = deferredStrings.putIfAbsent(value, value);
+            return shared == null ? value : shared;
+        }
+
+        /**
+         * Reports whether a node tree contains an anchored node, which is the only kind another tree can share.
+         */
+        private static boolean hasAnchor(Node node) {
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(node);
+            while (!pending.isEmpty()) {
+                Node next = pending.pop();
+                if (next.getAnchor() != null) {
+                    return true;
+                }
+                if (next.getNodeId() == NodeId.mapping) {
+                    for (NodeTuple tuple : ((MappingNode) next).getValue()) {
+                        pending.push(tuple.getKeyNode());
+                        pending.push(tuple.getValueNode());
+                    }
+                } else if (next.getNodeId() == NodeId.sequence) {
+                    ((SequenceNode) next).getValue().forEach(pending::push);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Builds a string, whether a key or a value, through the pool of strings if there is one.
+         */
+        private class ConstructPooledStr extends ConstructYamlStr {
+
+            @Override
+            public Object construct(Node node) {
+                String value = (String) super.construct(node);
+                return strings == null ? value : strings.intern(value);
+            }
+        }
     }
 
-    private static class CustomRepresenter extends Representer {
+    private enum Construction {
+        EAGER, LAZY, PARALLEL
+    }
 
-        private static final Map<Class<?>, Set<String>> childEnumNames = new HashMap<>();
-        private static final Map<Class<?>, Map<String, Set<String>>> childEnumValues =
-                new HashMap<>();
+    /**
+     * The node type for a map in {@code components} whose entries may be built in parallel. Such a map is built as
+     * a plain {@code LinkedHashMap}.
+     */
+    private static final class SiblingMap extends LinkedHashMap<Object, Object> {
 
-        static {
-            childEnumNames.put(PathItemImpl.class, toEnumNames(PathItem.HttpMethod.class));
-            childEnumValues.put(SchemaImpl.class,
-                    CollectionsHelper.mapOf("type", toEnumNames(Schema.SchemaType.class)));
-            childEnumValues.put(ParameterImpl.class,
-                    CollectionsHelper.mapOf("style", toEnumNames(Parameter.Style.class),
-                            "in", toEnumNames(Parameter.In.class)));
+        private static final long serialVersionUID = 1L;
+    }
+
+    static class CustomRepresenter extends Representer {
+
+        private static final EnumCodecs.Codec<PathItem.HttpMethod> HTTP_METHODS =
+                EnumCodecs.codec(PathItem.HttpMethod.class);
+
+        CustomRepresenter() {
+            setPropertyUtils(new ModelAccessors.ModelPropertyUtils());
         }
 
-        private static <E extends Enum<E>> Set<String> toEnumNames(Class<E> enumType) {
-            Set<String> result = new HashSet<>();
-            for (Enum<E> e : enumType.getEnumConstants()) {
-                result.add(e.name());
+        /**
+         * Returns the output key for a bean property: the lower-cased property name for {@code PathItem}'s HTTP
+         * method properties (for example, {@code get} for {@code GET}), {@code $ref} for a {@code Reference}'s
+         * {@code ref} property, and otherwise the property name itself.
+         */
+        static String propertyKey(Class<?> beanType, String propertyName) {
+            if (PathItem.class.isAssignableFrom(beanType)) {
+                PathItem.HttpMethod method = HTTP_METHODS.decode(propertyName);
+                if (method != null && method.name().equals(propertyName)) {
+                    return HTTP_METHODS.encode(method);
+                }
             }
-            return result;
+            if ("ref".equals(propertyName) && Reference.class.isAssignableFrom(beanType)) {
+                return REF;
+            }
+            return propertyName;
         }
 
         @Override
@@ -313,68 +995,140 @@ class Parser {
             if (propertyValue == null) {
                 return null;
             }
+            if (propertyValue instanceof Enum) {
+                // As in the superclass, an enum value is written as a plain string, here in its canonical spelling.
+                return new NodeTuple(representData(propertyKey(javaBean.getClass(), property.getName())),
+                        representScalar(org.yaml.snakeyaml.nodes.Tag.STR,
+                                EnumCodecs.encode((Enum<?>) propertyValue)));
+            }
             NodeTuple result = super.representJavaBeanProperty(javaBean, property, propertyValue, customTag);
 
-            if (childEnumNames.getOrDefault(javaBean.getClass(), Collections.emptySet()).contains(property.getName())) {
-                result = new NodeTuple(adjustNode(result.getKeyNode()), result.getValueNode());
-            }
-            if (propertyValue instanceof Enum && childEnumValues.getOrDefault(javaBean.getClass(),
-                    Collections.emptyMap())
-                    .getOrDefault(property.getName(), Collections.emptySet())
-                    .contains(((Enum) propertyValue).name())) {
-                result = new NodeTuple(result.getKeyNode(), adjustNode(result.getValueNode()));
+            String key = propertyKey(javaBean.getClass(), property.getName());
+            if (!key.equals(property.getName())) {
+                ScalarNode keyNode = (ScalarNode) result.getKeyNode();
+                result = new NodeTuple(new ScalarNode(keyNode.getTag(), key, keyNode.getStartMark(),
+                        keyNode.getEndMark(), keyNode.getScalarStyle()), result.getValueNode());
             }
             return result;
         }
+    }
 
-        private static Node adjustNode(Node n) {
-            Node result = n;
-            if (n instanceof ScalarNode) {
-                ScalarNode orig = (ScalarNode) n;
-                result = new ScalarNode(orig.getTag(), orig.getValue()
-                        .toLowerCase(),
-                        orig.getStartMark(), orig.getEndMark(), orig.getScalarStyle());
-            }
-            return result;
+    /**
+     * Times the writes of a serialization to JSON and counts the characters written, for the parser's listener.
+     */
+    private static final class RecordingWriter extends FilterWriter {
+
+        private final ParserStatistics.Recorder recorder;
+
+        RecordingWriter(Writer out, ParserStatistics.Recorder recorder) {
+            super(out);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            long t = System.nanoTime();
+            super.write(c);
+            recorder.written(1);
+            recorder.add(ParserStatistics.Phase.WRITING, System.nanoTime() - t);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            long t = System.nanoTime();
+            super.write(cbuf, off, len);
+            recorder.written(len);
+            recorder.add(ParserStatistics.Phase.WRITING, System.nanoTime() - t);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            long t = System.nanoTime();
+            super.write(str, off, len);
+            recorder.written(len);
+            recorder.add(ParserStatistics.Phase.WRITING, System.nanoTime() - t);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long t = System.nanoTime();
+            super.flush();
+            recorder.add(ParserStatistics.Phase.WRITING, System.nanoTime() - t);
         }
     }
 
     /**
      * Suppress the tag output so the resulting document can be read into any MP OpenAPI
      * implementation, not just SmallRye's.
+     * <p>
+     * SnakeYAML's emitter writes each tag as a separate chunk beginning with {@code !} (any separating space is
+     * written on its own beforehand), so dropping a chunk which starts with {@code !} and contains no {@code "}
+     * removes the tags. Checking the characters in place avoids allocating anything per write.
      */
     static class TagSuppressingWriter extends PrintWriter {
 
-        private static final Pattern UNQUOTED_TRAILING_TAG_PATTERN = Pattern.compile("\\![^\"]+$");
+        // Times the writes and counts the characters written, if the parser has a listener.
+        private final ParserStatistics.Recorder recorder;
 
         TagSuppressingWriter(Writer out) {
+            this(out, null);
+        }
+
+        TagSuppressingWriter(Writer out, ParserStatistics.Recorder recorder) {
             super(out);
+            this.recorder = recorder;
         }
 
         @Override
         public void write(char[] cbuf, int off, int len) {
-            int effLen = detag(CharBuffer.wrap(cbuf), off, len);
-            if (effLen > 0) {
-                super.write(cbuf, off, effLen);
+            if (recorder != null) {
+                long t = System.nanoTime();
+                if (!isTag(cbuf, off, len)) {
+                    super.write(cbuf, off, len);
+                    recorder.written(len);
+                }
+                recorder.add(ParserStatistics.Phase.TAG_SUPPRESSION, System.nanoTime() - t);
+            } else if (!isTag(cbuf, off, len)) {
+                super.write(cbuf, off, len);
             }
         }
 
         @Override
         public void write(String s, int off, int len) {
-            int effLen = detag(s, off, len);
-            if (effLen > 0) {
-                super.write(s, off, effLen);
+            if (recorder != null) {
+                long t = System.nanoTime();
+                if (!isTag(s, off, len)) {
+                    super.write(s, off, len);
+                    recorder.written(len);
+                }
+                recorder.add(ParserStatistics.Phase.TAG_SUPPRESSION, System.nanoTime() - t);
+            } else if (!isTag(s, off, len)) {
+                super.write(s, off, len);
             }
         }
 
-        private int detag(CharSequence cs, int off, int len) {
-            int result = len;
-            Matcher m = UNQUOTED_TRAILING_TAG_PATTERN.matcher(cs.subSequence(off, off + len));
-            if (m.matches()) {
-                result = len - (m.end() - m.start());
+        private static boolean isTag(char[] cbuf, int off, int len) {
+            if (len < 2 || cbuf[off] != '!') {
+                return false;
+            }
+            for (int i = off + 1; i < off + len; i++) {
+                if (cbuf[i] == '"') {
+                    return false;
+                }
             }
+            return true;
+        }
 
-            return result;
+        private static boolean isTag(String s, int off, int len) {
+            if (len < 2 || s.charAt(off) != '!') {
+                return false;
+            }
+            for (int i = off + 1; i < off + len; i++) {
+                if (s.charAt(i) == '"') {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 }
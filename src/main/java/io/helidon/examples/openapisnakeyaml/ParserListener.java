@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+/**
+ * Receives the {@link ParserStatistics} of each parse and each serialization, once {@link Parser#setListener set}
+ * on the parser.
+ * <p>
+ * While the listener is {@link #NONE}, as it is by default, the parser records nothing, so the only cost is a check
+ * of the listener per parse or serialization and of a null field per node built. Any other listener makes the parser
+ * time each event it reads and each write of the serialized document, which is far from free; {@link ParserMetrics}
+ * is meant to be set for a sample of traffic or while tracking down a problem, not left on.
+ * <p>
+ * The listener is called on the thread which parsed or serialized, after it has finished, and must be thread-safe.
+ * It is not called for a parse or serialization which fails.
+ */
+interface ParserListener {
+
+    /**
+     * The listener which receives nothing, and the one which lets the parser skip recording.
+     */
+    ParserListener NONE = new ParserListener() {
+    };
+
+    /**
+     * Receives the statistics of a parse.
+     *
+     * @param statistics the statistics
+     */
+    default void parsed(ParserStatistics statistics) {
+    }
+
+    /**
+     * Receives the statistics of a serialization.
+     *
+     * @param statistics the statistics
+     */
+    default void serialized(ParserStatistics statistics) {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds up the {@link ParserStatistics} of every parse and serialization as named metrics, which a metrics
+ * registry or endpoint can read through {@link #snapshot} and publish, for example as MicroProfile Metrics
+ * counters and gauges.
+ * <p>
+ * Every metric is a running total, except {@code parse.nanos.max} and {@code serialize.nanos.max}, the longest
+ * single parse and serialization. Per-phase times are named after the phase, as in {@code parse.scanning.nanos}.
+ * Instances are thread-safe, and each update costs a few uncontended atomic additions.
+ */
+final class ParserMetrics implements ParserListener {
+
+    private static final String PARSE = "parse.";
+    private static final String SERIALIZE = "serialize.";
+    private static final ParserStatistics.Phase[] PARSE_PHASES = {ParserStatistics.Phase.SCANNING,
+            ParserStatistics.Phase.COMPOSING, ParserStatistics.Phase.CONSTRUCTION};
+    private static final ParserStatistics.Phase[] SERIALIZE_PHASES = {ParserStatistics.Phase.REPRESENTATION,
+            ParserStatistics.Phase.TAG_SUPPRESSION, ParserStatistics.Phase.WRITING};
+
+    // Created up front and never changed after, so it is read without locking.
+    private final Map<String, LongAdder> totals = new LinkedHashMap<>();
+    private final LongAccumulator maxParseNanos = new LongAccumulator(Long::max, 0);
+    private final LongAccumulator maxSerializeNanos = new LongAccumulator(Long::max, 0);
+
+    ParserMetrics() {
+        for (String name : new String[] {"count", "nanos", "bytes", "nodes", "refs", "enum-conversions",
+                "model-objects", "allocated-bytes"}) {
+            totals.put(PARSE + name, new LongAdder());
+        }
+        for (ParserStatistics.Phase phase : PARSE_PHASES) {
+            totals.put(PARSE + phaseName(phase) + ".nanos", new LongAdder());
+        }
+        for (String name : new String[] {"count", "nanos", "chars", "allocated-bytes"}) {
+            totals.put(SERIALIZE + name, new LongAdder());
+        }
+        for (ParserStatistics.Phase phase : SERIALIZE_PHASES) {
+            totals.put(SERIALIZE + phaseName(phase) + ".nanos", new LongAdder());
+        }
+    }
+
+    @Override
+    public void parsed(ParserStatistics statistics) {
+        long nanos = statistics.totalNanos();
+        add(PARSE + "count", 1);
+        add(PARSE + "nanos", nanos);
+        add(PARSE + "bytes", statistics.documentSize());
+        add(PARSE + "nodes", statistics.nodes());
+        add(PARSE + "refs", statistics.refs());
+        add(PARSE + "enum-conversions", statistics.enumConversions());
+        add(PARSE + "model-objects", statistics.modelObjects());
+        add(PARSE + "allocated-bytes", Math.max(statistics.allocatedBytes(), 0));
+        for (ParserStatistics.Phase phase : PARSE_PHASES) {
+            add(PARSE + phaseName(phase) + ".nanos", statistics.nanos(phase));
+        }
+        maxParseNanos.accumulate(nanos);
+    }
+
+    @Override
+    public void serialized(ParserStatistics statistics) {
+        long nanos = statistics.totalNanos();
+        add(SERIALIZE + "count", 1);
+        add(SERIALIZE + "nanos", nanos);
+        add(SERIALIZE + "chars", statistics.documentSize());
+        add(SERIALIZE + "allocated-bytes", Math.max(statistics.allocatedBytes(), 0));
+        for (ParserStatistics.Phase phase : SERIALIZE_PHASES) {
+            add(SERIALIZE + phaseName(phase) + ".nanos", statistics.nanos(phase));
+        }
+        maxSerializeNanos.accumulate(nanos);
+    }
+
+    /**
+     * Returns the current value of every metric. Metrics updated while the snapshot is taken may or may not include
+     * the update.
+     *
+     * @return the values by metric name, in a fixed order
+     */
+    Map<String, Long> snapshot() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        totals.forEach((name, total) -> result.put(name, total.sum()));
+        result.put(PARSE + "nanos.max", maxParseNanos.get());
+        result.put(SERIALIZE + "nanos.max", maxSerializeNanos.get());
+        return Collections.unmodifiableMap(result);
+    }
+
+    private void add(String name, long value) {
+        totals.get(name).add(value);
+    }
+
+    private static String phaseName(ParserStatistics.Phase phase) {
+        return phase.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.nodes.Node;
+
+/**
+ * What one parse or serialization by {@link Parser} cost, as reported to a {@link ParserListener}.
+ * <p>
+ * A parse has three phases, which SnakeYAML interleaves: {@link Phase#SCANNING} is the time spent producing events
+ * from the input (in SnakeYAML's scanner and parser, or in {@link JSONParser}), {@link Phase#COMPOSING} the rest of
+ * the time until the node tree is complete, and {@link Phase#CONSTRUCTION} the time from then until the model is
+ * built. A serialization has two: the time spent writing, which is {@link Phase#TAG_SUPPRESSION} for YAML (the
+ * time spent in {@link Parser.TagSuppressingWriter}, including writing through to the underlying writer) and
+ * {@link Phase#WRITING} for JSON, and {@link Phase#REPRESENTATION}, the rest, in which
+ * {@link StreamingYAMLSerializer} represents and emits the model.
+ * Times are wall-clock times on the calling thread, so construction on other threads, as in
+ * {@link ParseOptions#inParallel parallel parsing}, counts only as long as the calling thread waits for it, and the
+ * counts of enum conversions and model objects include only those built on the calling thread.
+ */
+final class ParserStatistics {
+
+    /**
+     * The phases of parsing and serializing.
+     */
+    enum Phase {
+        SCANNING, COMPOSING, CONSTRUCTION, REPRESENTATION, TAG_SUPPRESSION, WRITING
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Map<Phase, Long> nanos;
+    private final long documentSize;
+    private final long nodes;
+    private final long refs;
+    private final long enumConversions;
+    private final long modelObjects;
+    private final long allocatedBytes;
+
+    private ParserStatistics(Map<Phase, Long> nanos, long documentSize, long nodes, long refs, long enumConversions,
+            long modelObjects, long allocatedBytes) {
+        this.nanos = nanos;
+        this.documentSize = documentSize;
+        this.nodes = nodes;
+        this.refs = refs;
+        this.enumConversions = enumConversions;
+        this.modelObjects = modelObjects;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Returns the wall-clock time spent in a phase.
+     *
+     * @param phase the phase
+     * @return the time in nanoseconds, which is 0 for the phases of serializing in the statistics of a parse, and
+     * the other way round
+     */
+    long nanos(Phase phase) {
+        return nanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Returns the total wall-clock time spent.
+     *
+     * @return the time in nanoseconds
+     */
+    long totalNanos() {
+        long total = 0;
+        for (long n : nanos.values()) {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the size of the document.
+     *
+     * @return the number of bytes read by a parse (of characters, for a parse from a {@code Reader}), or of
+     * characters written by a serialization
+     */
+    long documentSize() {
+        return documentSize;
+    }
+
+    /**
+     * Returns the number of nodes in the document a parse read: scalars, mappings, sequences, and aliases.
+     *
+     * @return the number of nodes, or 0 for a serialization
+     */
+    long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of {@code $ref} keys in the document a parse read.
+     *
+     * @return the number of references, or 0 for a serialization
+     */
+    long refs() {
+        return refs;
+    }
+
+    /**
+     * Returns the number of enum values a parse converted through {@link EnumCodecs}.
+     *
+     * @return the number of conversions, or 0 for a serialization
+     */
+    long enumConversions() {
+        return enumConversions;
+    }
+
+    /**
+     * Returns the number of MP OpenAPI model objects a parse built.
+     *
+     * @return the number of model objects, or 0 for a serialization
+     */
+    long modelObjects() {
+        return modelObjects;
+    }
+
+    /**
+     * Returns the number of bytes the calling thread allocated, if the JVM can tell.
+     *
+     * @return the number of bytes, or -1 if the JVM does not measure the memory each thread allocates
+     */
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        nanos.forEach((phase, n) -> sb.append(phase.name().toLowerCase(Locale.ROOT)).append('=')
+                .append(n / 1000).append("us "));
+        return sb.append("size=").append(documentSize)
+                .append(" nodes=").append(nodes)
+                .append(" refs=").append(refs)
+                .append(" enums=").append(enumConversions)
+                .append(" modelObjects=").append(modelObjects)
+                .append(" allocated=").append(allocatedBytes)
+                .toString();
+    }
+
+    private static long threadAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records the statistics of one parse or serialization, on the thread which does it.
+     */
+    static final class Recorder {
+
+        private final long start = System.nanoTime();
+        private final long startAllocated = threadAllocatedBytes();
+        private final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+        private long scanning;
+        private long composed;
+        private long documentSize;
+        private long nodes;
+        private long refs;
+        private long enumConversions;
+        private long modelObjects;
+        // For each collection being composed, the number of nodes in it so far if it is a mapping, whose keys are
+        // its even nodes, or -1 if it is a sequence.
+        private int[] collections = new int[16];
+        private int depth;
+
+        /**
+         * Wraps the input of a parse to count its bytes.
+         */
+        InputStream input(InputStream is) {
+            return new FilterInputStream(is) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        documentSize++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) {
+                        documentSize += n;
+                    }
+                    return n;
+                }
+            };
+        }
+
+        /**
+         * Wraps the input of a parse from a reader to count its characters.
+         */
+        Reader input(Reader reader) {
+            return new FilterReader(reader) {
+                @Override
+                public int read() throws IOException {
+                    int c = super.read();
+                    if (c >= 0) {
+                        documentSize++;
+                    }
+                    return c;
+                }
+
+                @Override
+                public int read(char[] cbuf, int off, int len) throws IOException {
+                    int n = super.read(cbuf, off, len);
+                    if (n > 0) {
+                        documentSize += n;
+                    }
+                    return n;
+                }
+            };
+        }
+
+        /**
+         * Wraps the events a parse composes to time and count them.
+         */
+        org.yaml.snakeyaml.parser.Parser events(org.yaml.snakeyaml.parser.Parser events) {
+            return new org.yaml.snakeyaml.parser.Parser() {
+                @Override
+                public boolean checkEvent(Event.ID choice) {
+                    long t = System.nanoTime();
+                    boolean result = events.checkEvent(choice);
+                    scanning += System.nanoTime() - t;
+                    return result;
+                }
+
+                @Override
+                public Event peekEvent() {
+                    long t = System.nanoTime();
+                    Event result = events.peekEvent();
+                    scanning += System.nanoTime() - t;
+                    return result;
+                }
+
+                @Override
+                public Event getEvent() {
+                    long t = System.nanoTime();
+                    Event result = events.getEvent();
+                    long now = System.nanoTime();
+                    scanning += now - t;
+                    if (result instanceof ScalarEvent) {
+                        if (node() && Parser.REF.equals(((ScalarEvent) result).getValue())) {
+                            refs++;
+                        }
+                    } else if (result instanceof CollectionStartEvent) {
+                        node();
+                        start(result instanceof MappingStartEvent);
+                    } else if (result instanceof CollectionEndEvent) {
+                        depth--;
+                    } else if (result instanceof AliasEvent) {
+                        node();
+                    } else if (result instanceof StreamEndEvent) {
+                        composed = now;
+                    }
+                    return result;
+                }
+            };
+        }
+
+        /**
+         * Counts a node, and tells whether it is a mapping key.
+         */
+        private boolean node() {
+            nodes++;
+            if (depth == 0 || collections[depth - 1] < 0) {
+                return false;
+            }
+            return collections[depth - 1]++ % 2 == 0;
+        }
+
+        private void start(boolean mapping) {
+            if (depth == collections.length) {
+                collections = Arrays.copyOf(collections, depth * 2);
+            }
+            collections[depth++] = mapping ? 0 : -1;
+        }
+
+        /**
+         * Notes that construction built an object for a node.
+         */
+        void constructed(Node node, boolean modelObject) {
+            if (node.getType().isEnum()) {
+                enumConversions++;
+            } else if (modelObject) {
+                modelObjects++;
+            }
+        }
+
+        /**
+         * Adds time to a phase of serialization.
+         */
+        void add(Phase phase, long n) {
+            nanos.merge(phase, n, Long::sum);
+        }
+
+        /**
+         * Adds to the number of characters serialized.
+         */
+        void written(int n) {
+            documentSize += n;
+        }
+
+        /**
+         * Completes the statistics of a parse.
+         */
+        ParserStatistics parsed() {
+            long end = System.nanoTime();
+            // A document with no content ends composition without construction.
+            long composedAt = composed == 0 ? end : composed;
+            nanos.put(Phase.SCANNING, scanning);
+            nanos.put(Phase.COMPOSING, composedAt - start - scanning);
+            nanos.put(Phase.CONSTRUCTION, end - composedAt);
+            return finish();
+        }
+
+        /**
+         * Completes the statistics of a serialization.
+         */
+        ParserStatistics serialized() {
+            long tagSuppression = nanos.getOrDefault(Phase.TAG_SUPPRESSION, 0L);
+            long writing = nanos.getOrDefault(Phase.WRITING, 0L);
+            nanos.put(Phase.REPRESENTATION, System.nanoTime() - start - tagSuppression - writing);
+            nanos.put(Phase.TAG_SUPPRESSION, tagSuppression);
+            nanos.put(Phase.WRITING, writing);
+            return finish();
+        }
+
+        private ParserStatistics finish() {
+            long allocated = startAllocated < 0 ? -1 : threadAllocatedBytes() - startAllocated;
+            return new ParserStatistics(new EnumMap<>(nanos), documentSize, nodes, refs, enumConversions,
+                    modelObjects, allocated);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+
+/**
+ * Selects part of an OpenAPI document for {@link ParseOptions#withProjection parsing} to build: the paths
+ * which start with one of a set of prefixes, the operations which have one of a set of tags, and the components
+ * those paths and operations use.
+ * <p>
+ * Components are always pruned to the ones reachable from the selected paths: those named by a {@code $ref} in a
+ * selected path item (or in a component reachable from one), the security schemes named by the top-level
+ * {@code security} requirements or a selected operation's, and any components named explicitly with
+ * {@link #withComponents}. So {@link #reachableComponents()}, which selects every path, just drops the unused
+ * components.
+ * <p>
+ * The selection is made on the node tree before any of the document's model objects are built, so the paths,
+ * operations, and components left out are never constructed. Instances are immutable.
+ */
+final class Projection {
+
+    private static final String COMPONENTS_PREFIX = "#/components/";
+    private static final String SECURITY_SCHEMES_PREFIX = COMPONENTS_PREFIX + "securitySchemes/";
+    private static final Set<String> OPERATION_KEYS = new HashSet<>();
+
+    private static final Projection REACHABLE_COMPONENTS = new Projection(Collections.emptyList(),
+            Collections.emptySet(), Collections.emptySet());
+
+    static {
+        for (PathItem.HttpMethod method : PathItem.HttpMethod.values()) {
+            OPERATION_KEYS.add(EnumCodecs.encode(method));
+        }
+    }
+
+    private final List<String> pathPrefixes;
+    private final Set<String> tags;
+    private final Set<String> components;
+
+    private Projection(List<String> pathPrefixes, Set<String> tags, Set<String> components) {
+        this.pathPrefixes = pathPrefixes;
+        this.tags = tags;
+        this.components = components;
+    }
+
+    /**
+     * Returns the projection which keeps every path and drops the components no path uses.
+     *
+     * @return the projection
+     */
+    static Projection reachableComponents() {
+        return REACHABLE_COMPONENTS;
+    }
+
+    /**
+     * Returns a projection which keeps only the paths starting with one of the specified prefixes, such as
+     * {@code /pets}, in addition to any restrictions of this one.
+     *
+     * @param prefixes the path prefixes
+     * @return the projection
+     */
+    Projection withPathPrefixes(String... prefixes) {
+        List<String> result = new ArrayList<>(pathPrefixes);
+        result.addAll(Arrays.asList(prefixes));
+        return new Projection(Collections.unmodifiableList(result), tags, components);
+    }
+
+    /**
+     * Returns a projection which keeps only the operations with at least one of the specified tags, in addition to
+     * any restrictions of this one. A path none of whose operations is kept is dropped.
+     *
+     * @param tags the operation tags
+     * @return the projection
+     */
+    Projection withTags(String... tags) {
+        Set<String> result = new LinkedHashSet<>(this.tags);
+        result.addAll(Arrays.asList(tags));
+        return new Projection(pathPrefixes, Collections.unmodifiableSet(result), components);
+    }
+
+    /**
+     * Returns a projection which also keeps the specified components, and the ones they use, even if no selected
+     * path uses them.
+     *
+     * @param refs the components, as references such as {@code #/components/schemas/Error}
+     * @return the projection
+     */
+    Projection withComponents(String... refs) {
+        Set<String> result = new LinkedHashSet<>(components);
+        result.addAll(Arrays.asList(refs));
+        return new Projection(pathPrefixes, tags, Collections.unmodifiableSet(result));
+    }
+
+    /**
+     * Works out which entries of a document to keep. The components node, if any, is changed at once to drop the
+     * kinds of component none of which is kept; the entries of the {@code paths} map, of each path item, and of
+     * each components map are left to the returned {@link Selection} to change as each is constructed.
+     *
+     * @param root the document's root node
+     * @param flatten merges any merge keys in a mapping node, so its entries can be examined
+     * @return the selection
+     */
+    Selection select(MappingNode root, Consumer<MappingNode> flatten) {
+        Map<Node, List<NodeTuple>> selected = new IdentityHashMap<>();
+        flatten.accept(root);
+        MappingNode paths = mapping(root, "paths", flatten);
+        MappingNode componentsNode = mapping(root, "components", flatten);
+
+        // Index the components by reference and collect the roots of reachability.
+        Map<String, Node> index = new HashMap<>();
+        if (componentsNode != null) {
+            for (NodeTuple kind : componentsNode.getValue()) {
+                String kindName = scalar(kind.getKeyNode());
+                if (kindName != null && kind.getValueNode() instanceof MappingNode) {
+                    MappingNode kindNode = (MappingNode) kind.getValueNode();
+                    flatten.accept(kindNode);
+                    for (NodeTuple entry : kindNode.getValue()) {
+                        String name = scalar(entry.getKeyNode());
+                        if (name != null) {
+                            index.put(COMPONENTS_PREFIX + kindName + "/" + name, entry.getValueNode());
+                        }
+                    }
+                }
+            }
+        }
+        Reachability reachability = new Reachability(index);
+        components.forEach(reachability::add);
+        Node security = value(root, "security");
+        if (security instanceof SequenceNode) {
+            reachability.addSecuritySchemes((SequenceNode) security);
+        }
+
+        if (paths != null) {
+            List<NodeTuple> keptPaths = new ArrayList<>();
+            for (NodeTuple path : paths.getValue()) {
+                String key = scalar(path.getKeyNode());
+                if (key != null && !matchesPrefix(key)) {
+                    continue;
+                }
+                Node pathItem = path.getValueNode();
+                if (!tags.isEmpty() && pathItem instanceof MappingNode) {
+                    List<NodeTuple> kept = selectOperations((MappingNode) pathItem, flatten);
+                    if (kept == null) {
+                        continue;
+                    }
+                    selected.put(pathItem, kept);
+                    reachability.walkEntries(kept);
+                } else {
+                    reachability.walk(pathItem);
+                }
+                keptPaths.add(path);
+            }
+            selected.put(paths, keptPaths);
+        }
+        reachability.drain();
+
+        if (componentsNode != null) {
+            List<NodeTuple> keptKinds = new ArrayList<>();
+            for (NodeTuple kind : componentsNode.getValue()) {
+                if (!(kind.getValueNode() instanceof MappingNode) || scalar(kind.getKeyNode()) == null) {
+                    keptKinds.add(kind);
+                    continue;
+                }
+                String prefix = COMPONENTS_PREFIX + scalar(kind.getKeyNode()) + "/";
+                List<NodeTuple> keptEntries = new ArrayList<>();
+                for (NodeTuple entry : ((MappingNode) kind.getValueNode()).getValue()) {
+                    String name = scalar(entry.getKeyNode());
+                    if (name != null && reachability.reached.contains(prefix + name)) {
+                        keptEntries.add(entry);
+                    }
+                }
+                if (!keptEntries.isEmpty()) {
+                    keptKinds.add(kind);
+                    selected.put(kind.getValueNode(), keptEntries);
+                }
+            }
+            componentsNode.setValue(keptKinds);
+        }
+        return new Selection(selected);
+    }
+
+    private boolean matchesPrefix(String path) {
+        if (pathPrefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : pathPrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the entries of a path item to keep, or {@code null} to drop the path item because none of its
+     * operations has one of the tags.
+     */
+    private List<NodeTuple> selectOperations(MappingNode pathItem, Consumer<MappingNode> flatten) {
+        flatten.accept(pathItem);
+        List<NodeTuple> result = new ArrayList<>(pathItem.getValue().size());
+        boolean anyOperation = false;
+        for (NodeTuple tuple : pathItem.getValue()) {
+            String key = scalar(tuple.getKeyNode());
+            if (key != null && OPERATION_KEYS.contains(key)) {
+                if (!hasTag(tuple.getValueNode())) {
+                    continue;
+                }
+                anyOperation = true;
+            }
+            result.add(tuple);
+        }
+        return anyOperation ? result : null;
+    }
+
+    private boolean hasTag(Node operation) {
+        Node operationTags = value(operation, "tags");
+        if (operationTags instanceof SequenceNode) {
+            for (Node tag : ((SequenceNode) operationTags).getValue()) {
+                if (tags.contains(scalar(tag))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static MappingNode mapping(Node node, String key, Consumer<MappingNode> flatten) {
+        Node result = value(node, key);
+        if (result instanceof MappingNode) {
+            flatten.accept((MappingNode) result);
+            return (MappingNode) result;
+        }
+        return null;
+    }
+
+    private static Node value(Node node, String key) {
+        if (node instanceof MappingNode) {
+            for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                if (key.equals(scalar(tuple.getKeyNode()))) {
+                    return tuple.getValueNode();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String scalar(Node node) {
+        return node.getNodeId() == NodeId.scalar ? ((ScalarNode) node).getValue() : null;
+    }
+
+    /**
+     * The changes to make to the entries of mapping nodes as they are constructed.
+     */
+    static final class Selection {
+
+        private final Map<Node, List<NodeTuple>> selected;
+
+        private Selection(Map<Node, List<NodeTuple>> selected) {
+            this.selected = selected;
+        }
+
+        /**
+         * Keeps only the selected entries of a mapping node, and of those of its values that are mapping nodes,
+         * before any of them is constructed.
+         *
+         * @param node the mapping node about to be constructed
+         */
+        void apply(MappingNode node) {
+            if (selected.isEmpty()) {
+                return;
+            }
+            List<NodeTuple> kept = selected.remove(node);
+            if (kept == null) {
+                return;
+            }
+            node.setValue(kept);
+            for (NodeTuple tuple : kept) {
+                List<NodeTuple> keptChildren = selected.remove(tuple.getValueNode());
+                if (keptChildren != null) {
+                    ((MappingNode) tuple.getValueNode()).setValue(keptChildren);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the components reachable from the nodes it is given, following {@code $ref} values and security
+     * requirements, without recursion.
+     */
+    private static final class Reachability {
+
+        private final Map<String, Node> index;
+        private final Set<String> reached = new HashSet<>();
+        private final Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Deque<Node> pending = new ArrayDeque<>();
+
+        Reachability(Map<String, Node> index) {
+            this.index = index;
+        }
+
+        void add(String ref) {
+            Node target = index.get(ref);
+            if (target != null && reached.add(ref)) {
+                walk(target);
+            }
+        }
+
+        void walk(Node node) {
+            if (node != null && visited.add(node)) {
+                pending.push(node);
+            }
+        }
+
+        void drain() {
+            Node node;
+            while ((node = pending.poll()) != null) {
+                if (node.getNodeId() == NodeId.sequence) {
+                    ((SequenceNode) node).getValue().forEach(this::walk);
+                } else if (node.getNodeId() == NodeId.mapping) {
+                    walkEntries(((MappingNode) node).getValue());
+                }
+            }
+        }
+
+        /**
+         * Walks the entries of a mapping node, following a {@code $ref} or a {@code security} requirement among
+         * them.
+         */
+        void walkEntries(List<NodeTuple> entries) {
+            for (NodeTuple tuple : entries) {
+                String key = scalar(tuple.getKeyNode());
+                if (Parser.REF.equals(key)) {
+                    String ref = scalar(tuple.getValueNode());
+                    if (ref != null) {
+                        add(ref);
+                    }
+                } else if ("security".equals(key) && tuple.getValueNode() instanceof SequenceNode) {
+                    addSecuritySchemes((SequenceNode) tuple.getValueNode());
+                }
+                walk(tuple.getValueNode());
+            }
+        }
+
+        void addSecuritySchemes(SequenceNode requirements) {
+            for (Node requirement : requirements.getValue()) {
+                if (requirement instanceof MappingNode) {
+                    for (NodeTuple scheme : ((MappingNode) requirement).getValue()) {
+                        String name = scalar(scheme.getKeyNode());
+                        if (name != null) {
+                            add(SECURITY_SCHEMES_PREFIX + name);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
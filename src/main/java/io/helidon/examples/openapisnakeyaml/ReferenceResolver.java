@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.smallrye.openapi.api.models.ModelImpl;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Reference;
+import org.yaml.snakeyaml.introspector.BeanAccess;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.introspector.PropertyUtils;
+
+/**
+ * Resolves the {@code $ref} values in an MP OpenAPI model to the objects they point to in the model's
+ * {@code components}.
+ * <p>
+ * A reference is looked up by name in its kind of component ({@code #/components/schemas/Pet} in
+ * {@code components.schemas}, and so on), so only the components referred to are read; the schemas of a
+ * {@link ParseOptions#lazily lazily parsed} model that nothing refers to stay unbuilt. A reference whose
+ * target is itself a reference is followed to the end of the chain, and the result is remembered for every pointer
+ * along the way, so each {@code $ref} value is resolved only once. Chains are followed in a loop rather than by
+ * recursion, and a chain which returns to a pointer already seen is reported as a cycle. (A schema which refers to
+ * itself from one of its properties is not a cycle in this sense; only the property's schema is a reference.)
+ * <p>
+ * A {@link #lazy} resolver does nothing until asked to resolve a reference. An {@link #eager} resolver also walks
+ * the whole model up front and resolves every reference it finds, so dangling references and cycles are reported
+ * immediately and later lookups are simple map reads.
+ * <p>
+ * The model itself is not changed: the {@code $ref} values stay in place so the model is written out as it was
+ * read. Only references within the document ({@code #/components/...}) are supported. Instances are thread-safe,
+ * provided the model is not modified while in use.
+ */
+class ReferenceResolver {
+
+    private static final String COMPONENTS_PREFIX = "#/components/";
+
+    // The maps of components.schemas, components.responses, and so on, by kind.
+    private final Map<String, Map<String, ?>> index;
+    private final Map<String, Object> resolved = new ConcurrentHashMap<>();
+
+    private ReferenceResolver(OpenAPI openAPI) {
+        index = index(openAPI.getComponents());
+    }
+
+    /**
+     * Creates a resolver which resolves references as they are requested.
+     *
+     * @param openAPI the model containing the references
+     * @return the resolver
+     */
+    static ReferenceResolver lazy(OpenAPI openAPI) {
+        return new ReferenceResolver(openAPI);
+    }
+
+    /**
+     * Creates a resolver which has already resolved every reference in the model.
+     *
+     * @param openAPI the model containing the references
+     * @return the resolver
+     * @throws IllegalArgumentException if the model contains a reference which cannot be resolved
+     * @throws IllegalStateException if the model contains a cycle of references
+     */
+    static ReferenceResolver eager(OpenAPI openAPI) {
+        ReferenceResolver resolver = new ReferenceResolver(openAPI);
+        resolver.resolveAll(openAPI);
+        return resolver;
+    }
+
+    /**
+     * Returns the object the specified model object refers to, or the object itself if it is not a reference.
+     *
+     * @param reference the possible reference
+     * @param <T> the type of model object
+     * @return the referenced object
+     * @throws IllegalArgumentException if the reference cannot be resolved or refers to the wrong kind of object
+     * @throws IllegalStateException if the reference is part of a cycle
+     */
+    <T extends Reference<T>> T resolve(T reference) {
+        String ref = reference.getRef();
+        if (ref == null) {
+            return reference;
+        }
+        Object target = resolve(ref);
+        if (!reference.getClass().isInstance(target)) {
+            throw new IllegalArgumentException("Reference " + ref + " refers to a "
+                    + target.getClass().getSimpleName() + " rather than a " + reference.getClass().getSimpleName());
+        }
+        @SuppressWarnings("unchecked")
+        T result = (T) target;
+        return result;
+    }
+
+    /**
+     * Returns the object the specified {@code $ref} value refers to, following any chain of references.
+     *
+     * @param ref the reference, such as {@code #/components/schemas/Pet}
+     * @return the referenced object, which is not itself a reference
+     * @throws IllegalArgumentException if the reference cannot be resolved
+     * @throws IllegalStateException if the reference is part of a cycle
+     */
+    Object resolve(String ref) {
+        Object result = resolved.get(ref);
+        if (result != null) {
+            return result;
+        }
+        Set<String> chain = new LinkedHashSet<>();
+        String current = ref;
+        while (true) {
+            if (!chain.add(current)) {
+                throw new IllegalStateException("Reference cycle: " + String.join(" -> ", chain) + " -> " + current);
+            }
+            Object target = resolved.get(current);
+            if (target == null) {
+                target = lookUp(current);
+                if (target == null) {
+                    throw new IllegalArgumentException(current.startsWith(COMPONENTS_PREFIX)
+                            ? "Unresolved reference " + current
+                            : "Unsupported reference " + current + "; only references to #/components are supported");
+                }
+                String next = target instanceof Reference ? ((Reference<?>) target).getRef() : null;
+                if (next != null) {
+                    current = next;
+                    continue;
+                }
+            }
+            for (String pointer : chain) {
+                resolved.put(pointer, target);
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Walks the model without recursion, resolving every reference found.
+     */
+    private void resolveAll(OpenAPI openAPI) {
+        PropertyUtils propertyUtils = new ModelAccessors.ModelPropertyUtils();
+        propertyUtils.setBeanAccess(BeanAccess.DEFAULT);
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(openAPI);
+        while (!pending.isEmpty()) {
+            Object node = pending.pop();
+            if (!visited.add(node)) {
+                continue;
+            }
+            if (node instanceof Reference && ((Reference<?>) node).getRef() != null) {
+                resolve(((Reference<?>) node).getRef());
+            }
+            if (node instanceof Map) {
+                push(pending, ((Map<?, ?>) node).values());
+            } else if (node instanceof List) {
+                push(pending, (List<?>) node);
+            }
+            if (node instanceof ModelImpl) {
+                for (Property property : propertyUtils.getProperties(node.getClass())) {
+                    Object value = property.get(node);
+                    if (value instanceof ModelImpl || value instanceof Map || value instanceof List) {
+                        pending.push(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void push(Deque<Object> pending, Iterable<?> values) {
+        for (Object value : values) {
+            if (value instanceof ModelImpl || value instanceof Map || value instanceof List) {
+                pending.push(value);
+            }
+        }
+    }
+
+    private static Map<String, Map<String, ?>> index(Components components) {
+        Map<String, Map<String, ?>> result = new HashMap<>();
+        if (components == null) {
+            return result;
+        }
+        add(result, "schemas", components.getSchemas());
+        add(result, "responses", components.getResponses());
+        add(result, "parameters", components.getParameters());
+        add(result, "examples", components.getExamples());
+        add(result, "requestBodies", components.getRequestBodies());
+        add(result, "headers", components.getHeaders());
+        add(result, "securitySchemes", components.getSecuritySchemes());
+        add(result, "links", components.getLinks());
+        add(result, "callbacks", components.getCallbacks());
+        return result;
+    }
+
+    private static void add(Map<String, Map<String, ?>> index, String kind, Map<String, ?> components) {
+        if (components != null) {
+            index.put(kind, components);
+        }
+    }
+
+    /**
+     * Returns the component a JSON pointer names, or {@code null} if there is none.
+     */
+    private Object lookUp(String pointer) {
+        if (!pointer.startsWith(COMPONENTS_PREFIX)) {
+            return null;
+        }
+        int slash = pointer.indexOf('/', COMPONENTS_PREFIX.length());
+        Map<String, ?> components = slash < 0 ? null
+                : index.get(pointer.substring(COMPONENTS_PREFIX.length(), slash));
+        return components == null ? null : components.get(unescape(pointer.substring(slash + 1)));
+    }
+
+    /**
+     * Escapes a name for use as a JSON pointer segment (RFC 6901).
+     */
+    static String escape(String name) {
+        if (name.indexOf('~') < 0 && name.indexOf('/') < 0) {
+            return name;
+        }
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String unescape(String segment) {
+        if (segment.indexOf('~') < 0) {
+            return segment;
+        }
+        return segment.replace("~1", "/").replace("~0", "~");
+    }
+}
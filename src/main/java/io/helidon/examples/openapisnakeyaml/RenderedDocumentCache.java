@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import io.smallrye.openapi.api.models.ModelImpl;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.BeanAccess;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.introspector.PropertyUtils;
+
+/**
+ * Keeps the rendered YAML and JSON of OpenAPI models, so that a model which is served repeatedly is written out
+ * only once.
+ * <p>
+ * Each entry holds the UTF-8 bytes of one model (by identity) in one format, together with a strong ETag derived
+ * from a SHA-256 hash of those bytes. The ETag therefore depends only on the content: the same document rendered
+ * by another instance, or again after the model was changed and changed back, has the same ETag.
+ * <p>
+ * By default a lookup of a model already rendered is a map read, and the cache assumes that models do not change
+ * once they are served; an application which changes one calls {@link #invalidate} for it. (A
+ * {@link ModelReloader}, which replaces its model rather than changing it, reports each replaced model to its
+ * listeners, which can invalidate it: {@code reloader.addListener(change -> cache.invalidate(change.previous()))}.)
+ * The MP OpenAPI model classes do not report changes themselves, so a cache created to detect changes instead takes
+ * a fingerprint of the model on every lookup, by walking it (reading each property, as rendering does, but without
+ * building or writing any output), and renders the model again if the fingerprint differs from the one taken when
+ * the entry was rendered. The walk costs roughly a quarter of what rendering does, so a lookup then costs time in
+ * proportion to the model.
+ * <p>
+ * When several threads ask for a document which is not yet in the cache, one of them renders it and the others
+ * wait for that result rather than rendering it themselves. If rendering fails, every waiting thread gets the
+ * failure and nothing is cached.
+ * <p>
+ * The cache holds at most the configured number of entries, discarding the least recently used one to make room
+ * for another, which bounds the memory used when there are many variants of a model (one per tenant, say). The
+ * cache keeps the models it holds entries for reachable until those entries are discarded.
+ * <p>
+ * Instances are thread-safe.
+ */
+class RenderedDocumentCache {
+
+    /**
+     * The formats in which a model can be rendered.
+     */
+    enum Format {
+        YAML,
+        JSON
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int ETAG_HASH_BYTES = 16;
+
+    /*
+     * PropertyUtils caches property information in plain HashMaps, so, as with the parser and serializer, each
+     * thread uses its own.
+     */
+    private static final ThreadLocal<PropertyUtils> PROPERTY_UTILS = ThreadLocal.withInitial(() -> {
+        PropertyUtils propertyUtils = new ModelAccessors.ModelPropertyUtils();
+        propertyUtils.setBeanAccess(BeanAccess.DEFAULT);
+        return propertyUtils;
+    });
+
+    private final Map<Key, CompletableFuture<Document>> entries;
+    private final boolean detectChanges;
+
+    /**
+     * Creates a cache which relies on {@link #invalidate} to learn of changes to the models.
+     *
+     * @param maxEntries the most entries (model and format combinations) to keep
+     */
+    RenderedDocumentCache(int maxEntries) {
+        this(maxEntries, false);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries the most entries (model and format combinations) to keep
+     * @param detectChanges whether to check on every lookup, by walking the model, that it has not changed since it
+     * was rendered
+     */
+    RenderedDocumentCache(int maxEntries, boolean detectChanges) {
+        this.detectChanges = detectChanges;
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1 but was " + maxEntries);
+        }
+        entries = new LinkedHashMap<Key, CompletableFuture<Document>>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<Document>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the model rendered in the specified format, rendering it if the cache has no entry for it or (if the
+     * cache detects changes) the model has changed since the entry was rendered.
+     *
+     * @param openAPI the model
+     * @param format the format
+     * @return the rendered document
+     * @throws YAMLException if the model cannot be rendered
+     */
+    Document get(OpenAPI openAPI, Format format) {
+        long fingerprint = detectChanges ? fingerprint(openAPI) : 0;
+        Key key = new Key(openAPI, format);
+        CompletableFuture<Document> result;
+        boolean render = false;
+        synchronized (entries) {
+            result = entries.get(key);
+            if (result == null || isStale(result, fingerprint)) {
+                result = new CompletableFuture<>();
+                entries.put(key, result);
+                render = true;
+            }
+        }
+        if (render) {
+            try {
+                result.complete(render(openAPI, format, fingerprint));
+            } catch (RuntimeException | Error e) {
+                synchronized (entries) {
+                    entries.remove(key, result);
+                }
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Discards the entries for the specified model.
+     *
+     * @param openAPI the model
+     */
+    void invalidate(OpenAPI openAPI) {
+        synchronized (entries) {
+            for (Format format : Format.values()) {
+                entries.remove(new Key(openAPI, format));
+            }
+        }
+    }
+
+    /**
+     * Discards every entry.
+     */
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entries, including any still being rendered.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * An entry rendered from an earlier version of the model is stale. One still being rendered is not: a thread
+     * which finds it waits for it, even if the model changed in the meantime.
+     */
+    private static boolean isStale(CompletableFuture<Document> entry, long fingerprint) {
+        return entry.isDone() && !entry.isCompletedExceptionally() && entry.join().fingerprint != fingerprint;
+    }
+
+    private static Document render(OpenAPI openAPI, Format format, long fingerprint) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
+        if (format == Format.YAML) {
+            Parser.toYAML(openAPI, writer);
+        } else {
+            Parser.toJSON(openAPI, writer);
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new YAMLException(e);
+        }
+        byte[] content = baos.toByteArray();
+        return new Document(content, etag(content), fingerprint);
+    }
+
+    private static String etag(byte[] content) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+        char[] etag = new char[ETAG_HASH_BYTES * 2 + 2];
+        etag[0] = '"';
+        for (int i = 0; i < ETAG_HASH_BYTES; i++) {
+            etag[2 * i + 1] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            etag[2 * i + 2] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        etag[etag.length - 1] = '"';
+        return new String(etag);
+    }
+
+    static long fingerprint(OpenAPI openAPI) {
+        Fingerprint fingerprint = new Fingerprint(PROPERTY_UTILS.get());
+        fingerprint.add(openAPI);
+        return fingerprint.hash;
+    }
+
+    /**
+     * A model rendered in one format.
+     */
+    static final class Document {
+
+        private final byte[] content;
+        private final String etag;
+        private final long fingerprint;
+
+        private Document(byte[] content, String etag, long fingerprint) {
+            this.content = content;
+            this.etag = etag;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Returns the strong entity tag for the document, including the surrounding quotes, for use in an
+         * {@code ETag} header.
+         *
+         * @return the entity tag
+         */
+        String etag() {
+            return etag;
+        }
+
+        /**
+         * Tells whether the document is one the client already has, according to the value of an
+         * {@code If-None-Match} request header.
+         *
+         * @param ifNoneMatch the header value, or {@code null} if there was none
+         * @return true if the header value is {@code *} or lists this document's entity tag (weakly or strongly)
+         */
+        boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || (tag.startsWith("W/") && tag.substring(2).equals(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the length of the document in bytes.
+         *
+         * @return the length
+         */
+        int length() {
+            return content.length;
+        }
+
+        /**
+         * Writes the UTF-8 bytes of the document.
+         *
+         * @param os where to write the document
+         * @throws IOException if writing fails
+         */
+        void writeTo(OutputStream os) throws IOException {
+            os.write(content);
+        }
+
+        /**
+         * Returns a copy of the UTF-8 bytes of the document.
+         *
+         * @return the bytes
+         */
+        byte[] toByteArray() {
+            return content.clone();
+        }
+
+        @Override
+        public String toString() {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Identifies an entry by the identity of its model, not by equality: the model classes do not define equality,
+     * and a model which changes must still find its own entry.
+     */
+    private static final class Key {
+
+        private final OpenAPI openAPI;
+        private final Format format;
+
+        Key(OpenAPI openAPI, Format format) {
+            this.openAPI = openAPI;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return openAPI == other.openAPI && format == other.format;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(openAPI) + format.hashCode();
+        }
+    }
+
+    /**
+     * A 64-bit hash of everything the serializer writes: every property of every model object, and the keys and
+     * values of every map and list (a model object which is a map, such as {@code Paths}, is walked as a map, as
+     * the serializer does), in order. Strings are hashed character by character, so a change to
+     * any value changes the fingerprint unless it happens to collide in all 64 bits.
+     */
+    private static final class Fingerprint {
+
+        private static final long PRIME = 0x100000001b3L;
+        private static final long NULL = 0x9e3779b97f4a7c15L;
+        private static final long MAP = 1;
+        private static final long LIST = 2;
+        private static final long BEAN = 3;
+        private static final long SCALAR = 4;
+
+        private final PropertyUtils propertyUtils;
+        private final Set<Object> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long hash = 0xcbf29ce484222325L;
+
+        Fingerprint(PropertyUtils propertyUtils) {
+            this.propertyUtils = propertyUtils;
+        }
+
+        void add(Object value) {
+            if (value == null) {
+                mix(NULL);
+            } else if (value instanceof Map) {
+                enter(value);
+                Map<?, ?> map = (Map<?, ?>) value;
+                mix(MAP);
+                mix(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    add(entry.getKey());
+                    add(entry.getValue());
+                }
+                inProgress.remove(value);
+            } else if (value instanceof Collection) {
+                enter(value);
+                Collection<?> collection = (Collection<?>) value;
+                mix(LIST);
+                mix(collection.size());
+                for (Object element : collection) {
+                    add(element);
+                }
+                inProgress.remove(value);
+            } else if (value instanceof ModelImpl) {
+                enter(value);
+                mix(BEAN);
+                mix(value.getClass().hashCode());
+                addProperties(value);
+                inProgress.remove(value);
+            } else {
+                mix(SCALAR);
+                mix(value.getClass().hashCode());
+                addString(value instanceof String ? (String) value : value.toString());
+            }
+        }
+
+        private void addProperties(Object bean) {
+            for (Property property : propertyUtils.getProperties(bean.getClass())) {
+                add(property.get(bean));
+            }
+        }
+
+        private void addString(String s) {
+            int length = s.length();
+            mix(length);
+            for (int i = 0; i < length; i++) {
+                mix(s.charAt(i));
+            }
+        }
+
+        private void mix(long value) {
+            hash = (hash ^ value) * PRIME;
+        }
+
+        private void enter(Object container) {
+            if (!inProgress.add(container)) {
+                throw new YAMLException("Unable to serialize recursive structure containing "
+                        + container.getClass().getName());
+            }
+        }
+    }
+}
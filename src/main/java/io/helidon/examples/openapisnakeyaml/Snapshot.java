@@ -0,0 +1,679 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.smallrye.openapi.api.models.ModelImpl;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+/**
+ * Writes an OpenAPI model to a compact binary snapshot, and rebuilds the model from the snapshot without parsing
+ * YAML or JSON, so a service whose document does not change can skip parsing it at startup. The snapshot is
+ * written once, at build time, by {@link #main} (or {@link #write}); the service then calls {@link #load}.
+ * <p>
+ * A snapshot holds, after a header:
+ * <ul>
+ * <li>a string table: every string in the model, including every map key and enum constant name, stored once;</li>
+ * <li>a type table: each model class, enum, and map-like model class (such as {@code Paths}) the model uses, with,
+ * for each model class, the names of its properties;</li>
+ * <li>the model itself as one typed record per value. A model object's record gives its type and then only its
+ * non-null properties, each as a property number and a value record; a map's or list's record gives its size and
+ * then its entries; a scalar's record gives its type and its value, or the number of its string.</li>
+ * </ul>
+ * Numbers are stored as variable-length integers, so most records take only a few bytes.
+ * <p>
+ * The snapshot contains the same things {@link Parser#toYAML} writes: the properties of each model object which
+ * can be both read and set, and the entries of each map and list. As with {@code toYAML}, an object reachable along
+ * more than one path is stored, and rebuilt, once per path. {@link #load} memory-maps the file and rebuilds the
+ * model using only the model classes' constructors and setters, found once per class; SnakeYAML is not used at
+ * all.
+ * <p>
+ * A snapshot is tied to the versions of the MP OpenAPI and SmallRye classes it was written with: rebuilding fails
+ * if a class or property it names no longer exists.
+ */
+final class Snapshot {
+
+    private static final int MAGIC = 0x4F415353;
+    private static final int VERSION = 1;
+
+    // Value records
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int TRUE = 2;
+    private static final int FALSE = 3;
+    private static final int INTEGER = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int BIG_DECIMAL = 7;
+    private static final int BIG_INTEGER = 8;
+    private static final int DATE = 9;
+    private static final int ENUM = 10;
+    private static final int MAP = 11;
+    private static final int LIST = 12;
+    private static final int BEAN = 13;
+    private static final int MAP_BEAN = 14;
+
+    // Type table entries
+    private static final int BEAN_TYPE = 0;
+    private static final int MAP_BEAN_TYPE = 1;
+    private static final int ENUM_TYPE = 2;
+
+    private static final String MODEL_PACKAGE = "org.eclipse.microprofile.openapi.models.";
+
+    private Snapshot() {
+    }
+
+    /**
+     * Parses an OpenAPI document and writes its snapshot: {@code Snapshot <document> <snapshot>}. Meant to be run
+     * as a build step, for example with {@code mvn exec:java}.
+     *
+     * @param args the document to parse and the snapshot file to write
+     * @throws IOException if the document cannot be read or the snapshot cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: " + Snapshot.class.getName() + " <document> <snapshot>");
+            System.exit(1);
+        }
+        OpenAPI openAPI;
+        try (InputStream is = Files.newInputStream(Paths.get(args[0]))) {
+            openAPI = Parser.parse(is);
+        }
+        write(openAPI, Paths.get(args[1]));
+    }
+
+    /**
+     * Writes the snapshot of a model to a file.
+     *
+     * @param openAPI the model
+     * @param file the file to write
+     * @throws UncheckedIOException if the file cannot be written
+     * @throws IllegalArgumentException if the model contains a value which cannot be stored
+     */
+    static void write(OpenAPI openAPI, Path file) {
+        try (OutputStream os = Files.newOutputStream(file)) {
+            write(openAPI, os);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the snapshot of a model.
+     *
+     * @param openAPI the model
+     * @param os where to write the snapshot
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the model contains a value which cannot be stored
+     */
+    static void write(OpenAPI openAPI, OutputStream os) throws IOException {
+        Writer writer = new Writer();
+        writer.value(openAPI);
+        writer.writeTo(os);
+    }
+
+    /**
+     * Rebuilds a model from a snapshot file, which is memory-mapped rather than read.
+     *
+     * @param file the snapshot
+     * @return the model
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a snapshot, or not one these classes can rebuild
+     */
+    static OpenAPI load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rebuilds a model from a snapshot, reading from the buffer's position.
+     *
+     * @param buffer the snapshot
+     * @return the model
+     * @throws IllegalArgumentException if the buffer does not hold a snapshot, or not one these classes can rebuild
+     */
+    static OpenAPI read(ByteBuffer buffer) {
+        try {
+            Object result = new Reader(buffer).value();
+            if (!(result instanceof OpenAPI)) {
+                throw new IllegalArgumentException("Snapshot contains a " + result.getClass().getName()
+                        + " rather than an OpenAPI model");
+            }
+            return (OpenAPI) result;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Snapshot is truncated or corrupt", e);
+        }
+    }
+
+    /**
+     * The properties of a model class which can be both read and set, in a fixed order.
+     */
+    private static PropertyDescriptor[] properties(Class<?> type) {
+        try {
+            List<PropertyDescriptor> result = new ArrayList<>();
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+                    result.add(descriptor);
+                }
+            }
+            return result.toArray(new PropertyDescriptor[0]);
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("Cannot find the properties of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * The class to record for a model object: its own class, or, for a private extension of a model class such as
+     * those {@link LazyMaps} uses, the nearest public superclass.
+     */
+    private static Class<?> publicClass(Class<?> type) {
+        Class<?> result = type;
+        while (!Modifier.isPublic(result.getModifiers())) {
+            result = result.getSuperclass();
+        }
+        return result;
+    }
+
+    private static final class Writer {
+
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final Map<Class<?>, TypeEntry> types = new LinkedHashMap<>();
+        private final Set<Object> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Output body = new Output();
+
+        void value(Object value) {
+            if (value == null) {
+                body.write(NULL);
+            } else if (value instanceof String) {
+                body.write(STRING);
+                body.writeVarint(string((String) value));
+            } else if (value instanceof Boolean) {
+                body.write((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                body.write(INTEGER);
+                body.writeVarlong(zigzag((Integer) value));
+            } else if (value instanceof Long) {
+                body.write(LONG);
+                body.writeVarlong(zigzag((Long) value));
+            } else if (value instanceof Double) {
+                body.write(DOUBLE);
+                body.writeLong(Double.doubleToLongBits((Double) value));
+            } else if (value instanceof BigDecimal) {
+                body.write(BIG_DECIMAL);
+                body.writeVarint(string(value.toString()));
+            } else if (value instanceof BigInteger) {
+                body.write(BIG_INTEGER);
+                body.writeVarint(string(value.toString()));
+            } else if (value instanceof Date) {
+                body.write(DATE);
+                body.writeVarlong(zigzag(((Date) value).getTime()));
+            } else if (value instanceof Enum) {
+                body.write(ENUM);
+                body.writeVarint(type(((Enum<?>) value).getDeclaringClass(), ENUM_TYPE).number);
+                body.writeVarint(string(((Enum<?>) value).name()));
+            } else if (value instanceof ModelImpl) {
+                enter(value);
+                if (value instanceof Map) {
+                    body.write(MAP_BEAN);
+                    body.writeVarint(type(publicClass(value.getClass()), MAP_BEAN_TYPE).number);
+                    entries((Map<?, ?>) value);
+                } else {
+                    bean(value);
+                }
+                inProgress.remove(value);
+            } else if (value instanceof Map) {
+                enter(value);
+                body.write(MAP);
+                entries((Map<?, ?>) value);
+                inProgress.remove(value);
+            } else if (value instanceof List) {
+                enter(value);
+                List<?> list = (List<?>) value;
+                body.write(LIST);
+                body.writeVarint(list.size());
+                for (Object element : list) {
+                    value(element);
+                }
+                inProgress.remove(value);
+            } else {
+                throw new IllegalArgumentException("Cannot store a " + value.getClass().getName() + " in a snapshot");
+            }
+        }
+
+        private void bean(Object bean) {
+            TypeEntry type = type(publicClass(bean.getClass()), BEAN_TYPE);
+            Object[] values = new Object[type.properties.length];
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = get(type.properties[i], bean);
+                if (values[i] != null) {
+                    count++;
+                }
+            }
+            body.write(BEAN);
+            body.writeVarint(type.number);
+            body.writeVarint(count);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    body.writeVarint(i);
+                    value(values[i]);
+                }
+            }
+        }
+
+        private void entries(Map<?, ?> map) {
+            body.writeVarint(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                value(entry.getKey());
+                value(entry.getValue());
+            }
+        }
+
+        private int string(String s) {
+            Integer number = strings.get(s);
+            if (number == null) {
+                number = strings.size();
+                strings.put(s, number);
+            }
+            return number;
+        }
+
+        private TypeEntry type(Class<?> type, int kind) {
+            TypeEntry entry = types.get(type);
+            if (entry == null) {
+                entry = new TypeEntry(types.size(), kind,
+                        kind == BEAN_TYPE ? properties(type) : new PropertyDescriptor[0]);
+                types.put(type, entry);
+                string(type.getName());
+                for (PropertyDescriptor property : entry.properties) {
+                    string(property.getName());
+                }
+            }
+            return entry;
+        }
+
+        void writeTo(OutputStream os) throws IOException {
+            Output header = new Output();
+            header.writeInt(MAGIC);
+            header.write(VERSION);
+            header.writeVarint(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                header.writeVarint(bytes.length);
+                header.write(bytes);
+            }
+            header.writeVarint(types.size());
+            for (Map.Entry<Class<?>, TypeEntry> type : types.entrySet()) {
+                TypeEntry entry = type.getValue();
+                header.write(entry.kind);
+                header.writeVarint(strings.get(type.getKey().getName()));
+                header.writeVarint(entry.properties.length);
+                for (PropertyDescriptor property : entry.properties) {
+                    header.writeVarint(strings.get(property.getName()));
+                }
+            }
+            header.writeTo(os);
+            body.writeTo(os);
+        }
+
+        private void enter(Object container) {
+            if (!inProgress.add(container)) {
+                throw new IllegalArgumentException("Cannot store recursive structure containing "
+                        + container.getClass().getName() + " in a snapshot");
+            }
+        }
+
+        private static Object get(PropertyDescriptor property, Object bean) {
+            try {
+                return property.getReadMethod().invoke(bean);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Cannot read property " + property.getName() + " of "
+                        + bean.getClass().getName(), e);
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class TypeEntry {
+
+        private final int number;
+        private final int kind;
+        private final PropertyDescriptor[] properties;
+
+        TypeEntry(int number, int kind, PropertyDescriptor[] properties) {
+            this.number = number;
+            this.kind = kind;
+            this.properties = properties;
+        }
+    }
+
+    /**
+     * A growable byte array with the encodings the snapshot uses.
+     */
+    private static final class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(8192);
+        }
+
+        void writeVarint(int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarlong(long value) {
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class Reader {
+
+        private final ByteBuffer buffer;
+        private final String[] strings;
+        private final Type[] types;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            if (buffer.remaining() < 5 || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an OpenAPI snapshot");
+            }
+            int version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version " + version);
+            }
+            strings = new String[readLength()];
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = readLength();
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            types = new Type[readLength()];
+            for (int i = 0; i < types.length; i++) {
+                int kind = buffer.get();
+                String name = strings[readVarint()];
+                String[] propertyNames = new String[readLength()];
+                for (int j = 0; j < propertyNames.length; j++) {
+                    propertyNames[j] = strings[readVarint()];
+                }
+                types[i] = new Type(kind, name, propertyNames);
+            }
+        }
+
+        Object value() {
+            int record = buffer.get();
+            switch (record) {
+            case NULL:
+                return null;
+            case STRING:
+                return strings[readVarint()];
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INTEGER:
+                return (int) unzigzag(readVarlong());
+            case LONG:
+                return unzigzag(readVarlong());
+            case DOUBLE:
+                return Double.longBitsToDouble(buffer.getLong());
+            case BIG_DECIMAL:
+                return new BigDecimal(strings[readVarint()]);
+            case BIG_INTEGER:
+                return new BigInteger(strings[readVarint()]);
+            case DATE:
+                return new Date(unzigzag(readVarlong()));
+            case ENUM:
+                return types[readVarint()].constant(strings[readVarint()]);
+            case MAP:
+                return entries(new LinkedHashMap<>());
+            case LIST:
+                int size = readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(value());
+                }
+                return list;
+            case BEAN:
+                Type type = types[readVarint()];
+                Object bean = type.newInstance();
+                for (int count = readLength(); count > 0; count--) {
+                    type.set(bean, readVarint(), value());
+                }
+                return bean;
+            case MAP_BEAN:
+                @SuppressWarnings("unchecked")
+                Map<Object, Object> map = (Map<Object, Object>) types[readVarint()].newInstance();
+                return entries(map);
+            default:
+                throw new IllegalArgumentException("Snapshot is corrupt: unknown record " + record + " at offset "
+                        + (buffer.position() - 1));
+            }
+        }
+
+        private Map<Object, Object> entries(Map<Object, Object> map) {
+            for (int size = readLength(); size > 0; size--) {
+                Object key = value();
+                map.put(key, value());
+            }
+            return map;
+        }
+
+        /**
+         * Reads a count or length, which cannot be more than the bytes left, since each element takes at least one,
+         * so that a corrupt one fails here rather than as a huge or negative allocation.
+         */
+        private int readLength() {
+            int length = readVarint();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Snapshot is truncated or corrupt");
+            }
+            return length;
+        }
+
+        private int readVarint() {
+            return (int) readVarlong();
+        }
+
+        private long readVarlong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Snapshot is corrupt: malformed number at offset "
+                    + buffer.position());
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    /**
+     * A type from the type table, with what is needed to create its instances and set their properties, found when
+     * the table is read.
+     */
+    private static final class Type {
+
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private final Method[] setters;
+        private final Map<String, Object> constants;
+
+        Type(int kind, String name, String[] propertyNames) {
+            type = modelClass(kind, name);
+            if (kind == ENUM_TYPE) {
+                constructor = null;
+                setters = null;
+                constants = new HashMap<>();
+                for (Object constant : type.getEnumConstants()) {
+                    constants.put(((Enum<?>) constant).name(), constant);
+                }
+                return;
+            }
+            constants = null;
+            try {
+                constructor = type.getConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Snapshot refers to " + name
+                        + ", which has no public no-argument constructor", e);
+            }
+            Map<String, Method> writeMethods = new HashMap<>();
+            if (propertyNames.length > 0) {
+                for (PropertyDescriptor property : properties(type)) {
+                    writeMethods.put(property.getName(), property.getWriteMethod());
+                }
+            }
+            setters = new Method[propertyNames.length];
+            for (int i = 0; i < propertyNames.length; i++) {
+                setters[i] = writeMethods.get(propertyNames[i]);
+                if (setters[i] == null) {
+                    throw new IllegalArgumentException("Snapshot refers to unknown property " + propertyNames[i]
+                            + " of " + name);
+                }
+            }
+        }
+
+        /**
+         * Loads a class named in the type table without initializing it, and accepts it only if it is a model class
+         * or an enum of the MicroProfile OpenAPI model, so that no other class named in a snapshot gets to run its
+         * static initializer or constructor.
+         */
+        private static Class<?> modelClass(int kind, String name) {
+            Class<?> result;
+            try {
+                result = Class.forName(name, false, Snapshot.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Snapshot refers to unknown class " + name, e);
+            }
+            boolean accepted;
+            switch (kind) {
+            case ENUM_TYPE:
+                accepted = result.isEnum() && name.startsWith(MODEL_PACKAGE);
+                break;
+            case BEAN_TYPE:
+                accepted = ModelImpl.class.isAssignableFrom(result);
+                break;
+            case MAP_BEAN_TYPE:
+                accepted = ModelImpl.class.isAssignableFrom(result) && Map.class.isAssignableFrom(result);
+                break;
+            default:
+                throw new IllegalArgumentException("Snapshot is corrupt: unknown type kind " + kind);
+            }
+            if (!accepted) {
+                throw new IllegalArgumentException("Snapshot refers to " + name
+                        + ", which is not an OpenAPI model class");
+            }
+            try {
+                return Class.forName(name, true, Snapshot.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Snapshot refers to unknown class " + name, e);
+            }
+        }
+
+        Object newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot create " + type.getName(), e);
+            }
+        }
+
+        void set(Object bean, int property, Object value) {
+            try {
+                setters[property].invoke(bean, value);
+            } catch (ReflectiveOperationException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cannot set property " + setters[property].getName()
+                        + " of " + type.getName(), e);
+            }
+        }
+
+        Object constant(String name) {
+            Object result = constants.get(name);
+            if (result == null) {
+                throw new IllegalArgumentException("Snapshot refers to unknown constant " + name + " of "
+                        + type.getName());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.smallrye.openapi.api.models.ModelImpl;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.emitter.Emitable;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * Writes an MP OpenAPI model as YAML by walking the model and sending events straight to SnakeYAML's
+ * {@link Emitter}, instead of first representing the whole model as a {@code Node} graph the way
+ * {@code Yaml.dump} does. Memory use is therefore bounded by the nesting depth of the model, not its size.
+ * <p>
+ * The events are the ones {@code Yaml.dump} would produce with {@link Parser.CustomRepresenter}, including the
+ * renaming of property keys (such as lower-casing HTTP methods), the {@link EnumCodecs} spelling of enum values,
+ * and the implementation-class tags (which {@link Parser.TagSuppressingWriter} removes), so the output is the
+ * same. The one exception: an object reachable along more than one path is written out in full each time rather
+ * than as an anchor and aliases, because the anchor would have to be written before the repetition is discovered.
+ * <p>
+ * Model objects are walked directly. Anything else (strings, numbers, and so on) is handed to the
+ * {@code CustomRepresenter} individually so those values are formatted exactly as before.
+ * <p>
+ * The events can also be sent to any other {@link Emitable}, which is how {@link JSONEmitter} produces JSON.
+ * <p>
+ * Instances are not thread-safe.
+ */
+class StreamingYAMLSerializer {
+
+    private final DumperOptions options;
+    private final Parser.CustomRepresenter representer;
+    private final Resolver resolver = new Resolver();
+    private final Map<Class<?>, String> beanTags = new HashMap<>();
+    private final Set<Object> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Emitable emitter;
+
+    StreamingYAMLSerializer(DumperOptions options) {
+        this.options = options;
+        representer = new Parser.CustomRepresenter();
+        representer.setDefaultFlowStyle(options.getDefaultFlowStyle());
+        representer.setDefaultScalarStyle(options.getDefaultScalarStyle());
+        representer.getPropertyUtils().setAllowReadOnlyProperties(options.isAllowReadOnlyProperties());
+    }
+
+    void serialize(Object model, Writer writer) {
+        serialize(model, new Emitter(writer, options));
+    }
+
+    /**
+     * Sends the events for the model to the specified emitter, such as a {@link JSONEmitter}.
+     *
+     * @param model the model to serialize
+     * @param emitter the recipient of the events
+     */
+    void serialize(Object model, Emitable emitter) {
+        this.emitter = emitter;
+        try {
+            emit(new StreamStartEvent(null, null));
+            emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(),
+                    options.getTags()));
+            serializeObject(model);
+            emit(new DocumentEndEvent(null, null, options.isExplicitEnd()));
+            emit(new StreamEndEvent(null, null));
+        } catch (IOException e) {
+            throw new YAMLException(e);
+        } finally {
+            emitter = null;
+            inProgress.clear();
+        }
+    }
+
+    private void serializeObject(Object value) throws IOException {
+        if (value instanceof Map) {
+            serializeMap((Map<?, ?>) value, Tag.MAP.getValue(), true);
+        } else if (value instanceof List) {
+            serializeList((List<?>) value);
+        } else if (value instanceof ModelImpl) {
+            serializeBean(value, beanTag(value.getClass()), false);
+        } else {
+            serializeNode(representer.represent(value));
+        }
+    }
+
+    private void serializeMap(Map<?, ?> map, String tag, boolean implicit) throws IOException {
+        enter(map);
+        emit(new MappingStartEvent(null, tag, implicit, null, null, options.getDefaultFlowStyle()));
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            serializeObject(entry.getKey());
+            serializeObject(entry.getValue());
+        }
+        emit(new MappingEndEvent(null, null));
+        exit(map);
+    }
+
+    private void serializeList(Collection<?> list) throws IOException {
+        enter(list);
+        emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, options.getDefaultFlowStyle()));
+        for (Object element : list) {
+            serializeObject(element);
+        }
+        emit(new SequenceEndEvent(null, null));
+        exit(list);
+    }
+
+    private void serializeBean(Object bean, String tag, boolean implicit) throws IOException {
+        enter(bean);
+        Class<?> beanType = bean.getClass();
+        emit(new MappingStartEvent(null, tag, implicit, null, null, options.getDefaultFlowStyle()));
+        for (Property property : representer.getPropertyUtils().getProperties(beanType)) {
+            Object propertyValue = property.get(bean);
+            if (propertyValue == null) {
+                continue;
+            }
+            serializeNode(representer.represent(Parser.CustomRepresenter.propertyKey(beanType,
+                    property.getName())));
+            serializeProperty(property, propertyValue);
+        }
+        emit(new MappingEndEvent(null, null));
+        exit(bean);
+    }
+
+    private void serializeProperty(Property property, Object propertyValue) throws IOException {
+        if (propertyValue instanceof Enum) {
+            /*
+             * As in CustomRepresenter.representJavaBeanProperty, an enum property value is written as a plain
+             * string in its canonical spelling rather than with its enum type's tag.
+             */
+            serializeScalar(Tag.STR, EnumCodecs.encode((Enum<?>) propertyValue), options.getDefaultScalarStyle());
+        } else if (propertyValue instanceof ModelImpl && !(propertyValue instanceof Map)) {
+            // Also as in the Representer, a bean whose type is exactly the property type needs no tag.
+            boolean untagged = property.getType() == propertyValue.getClass();
+            serializeBean(propertyValue, untagged ? Tag.MAP.getValue() : beanTag(propertyValue.getClass()),
+                    untagged);
+        } else {
+            serializeObject(propertyValue);
+        }
+    }
+
+    private void serializeNode(Node node) throws IOException {
+        if (node.getNodeId() == NodeId.scalar) {
+            ScalarNode scalarNode = (ScalarNode) node;
+            serializeScalar(scalarNode.getTag(), scalarNode.getValue(), scalarNode.getScalarStyle());
+        } else if (node.getNodeId() == NodeId.sequence) {
+            SequenceNode sequenceNode = (SequenceNode) node;
+            emit(new SequenceStartEvent(null, node.getTag().getValue(),
+                    node.getTag().equals(resolver.resolve(NodeId.sequence, null, true)), null, null,
+                    sequenceNode.getFlowStyle()));
+            for (Node item : sequenceNode.getValue()) {
+                serializeNode(item);
+            }
+            emit(new SequenceEndEvent(null, null));
+        } else {
+            MappingNode mappingNode = (MappingNode) node;
+            emit(new MappingStartEvent(null, node.getTag().getValue(),
+                    node.getTag().equals(resolver.resolve(NodeId.mapping, null, true)), null, null,
+                    mappingNode.getFlowStyle()));
+            for (NodeTuple tuple : mappingNode.getValue()) {
+                serializeNode(tuple.getKeyNode());
+                serializeNode(tuple.getValueNode());
+            }
+            emit(new MappingEndEvent(null, null));
+        }
+    }
+
+    private void serializeScalar(Tag tag, String value, DumperOptions.ScalarStyle style) throws IOException {
+        ImplicitTuple implicit = new ImplicitTuple(tag.equals(resolver.resolve(NodeId.scalar, value, true)),
+                tag.equals(resolver.resolve(NodeId.scalar, value, false)));
+        emit(new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style));
+    }
+
+    private String beanTag(Class<?> beanType) {
+        return beanTags.computeIfAbsent(beanType, type -> new Tag(type).getValue());
+    }
+
+    private void enter(Object container) {
+        if (!inProgress.add(container)) {
+            throw new YAMLException("Unable to serialize recursive structure containing " + container.getClass()
+                    .getName());
+        }
+    }
+
+    private void exit(Object container) {
+        inProgress.remove(container);
+    }
+
+    private void emit(Event event) throws IOException {
+        emitter.emit(event);
+    }
+}
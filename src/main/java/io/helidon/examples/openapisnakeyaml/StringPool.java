@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+/**
+ * A bounded pool of strings which {@link ParseOptions#withStrings parsing} uses so that the many
+ * repetitions of the same string in a document (keys such as {@code description}, values such as
+ * {@code application/json} and {@code #/components/schemas/Pet}) share one {@code String} in the model instead of
+ * each keeping its own copy.
+ * <p>
+ * The pool is a fixed-size hash table in which each string may occupy one of two slots. A string that finds neither
+ * slot holding an equal string takes one of them, displacing any string already there, so the pool never grows
+ * beyond its capacity and a string repeated often stays in it. A displaced string is not lost from the model; later
+ * repetitions of it simply are not shared.
+ * <p>
+ * Use a new pool for each parse to share strings within one document, or one pool for several parses to share them
+ * across documents as well, such as fragments of the same API. Instances are thread-safe: concurrent callers may
+ * displace each other's strings, but {@link #intern} always returns a string equal to its argument.
+ */
+final class StringPool {
+
+    private final String[] table;
+    private final int mask;
+
+    /**
+     * Creates a pool holding at most the specified number of strings, rounded up to a power of two.
+     *
+     * @param capacity the maximum number of strings, at least 2
+     */
+    StringPool(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30 but was " + capacity);
+        }
+        table = new String[Integer.highestOneBit(capacity - 1) << 1];
+        mask = table.length - 1;
+    }
+
+    /**
+     * Returns the pooled string equal to the specified one, adding it to the pool if there is none.
+     *
+     * @param s the string
+     * @return an equal string, which is {@code s} itself unless the pool already held an equal string
+     */
+    String intern(String s) {
+        int h = s.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        String pooled = table[slot];
+        if (pooled == null || pooled.equals(s)) {
+            return pooled == null ? (table[slot] = s) : pooled;
+        }
+        int other = slot ^ 1;
+        pooled = table[other];
+        if (pooled != null && pooled.equals(s)) {
+            return pooled;
+        }
+        // Take the second slot if it is free, so that both strings stay; otherwise displace the first slot's.
+        table[pooled == null ? other : slot] = s;
+        return s;
+    }
+
+    /**
+     * Returns the number of strings the pool can hold.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return table.length;
+    }
+}
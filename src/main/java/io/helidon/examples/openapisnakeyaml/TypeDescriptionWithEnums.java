@@ -16,17 +16,23 @@
  */
 package io.helidon.examples.openapisnakeyaml;
 
-import org.yaml.snakeyaml.TypeDescription;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.Property;
 import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
-class TypeDescriptionWithEnums extends TypeDescription {
+/**
+ * Describes a model type with enum-valued properties, converting each such property's scalar through the
+ * {@link EnumCodecs} codec for the property's enum type. Every enum-valued property of the model interface is found
+ * when the description is created, so none is left to SnakeYAML's exact-name {@code Enum.valueOf}.
+ */
+class TypeDescriptionWithEnums extends ModelTypeDescription {
 
-    private final Map<String, Function<String, Enum<?>> > enumEvaluators = new HashMap<>();
+    private final Map<String, EnumCodecs.Codec<?>> enumCodecs = new HashMap<>();
 
     static TypeDescriptionWithEnums newInstance(Class<? extends Object> clazz, Class<?> impl) {
         TypeDescriptionWithEnums result = new TypeDescriptionWithEnums(clazz, impl);
@@ -34,20 +40,29 @@ class TypeDescriptionWithEnums extends TypeDescription {
     }
 
     TypeDescriptionWithEnums(Class<? extends Object> clazz, Class<?> impl) {
-        super(clazz, null, impl);
-    }
-
-    <E extends Enum<E>> TypeDescriptionWithEnums addEnum(String propertyName, Function<String,
-            Enum<?>> fn) {
-        enumEvaluators.put(propertyName, fn);
-        return this;
+        super(clazz, impl);
+        for (Property property : ModelAccessors.properties(clazz).values()) {
+            if (property.getType().isEnum()) {
+                enumCodecs.put(property.getName(), EnumCodecs.codecFor(property.getType()));
+            }
+        }
     }
 
     @Override
     public Object newInstance(String propertyName, Node node) {
-        if (enumEvaluators.containsKey(propertyName)) {
-            return enumEvaluators.get(propertyName).apply(((ScalarNode) node).getValue().toUpperCase());
+        EnumCodecs.Codec<?> codec = enumCodecs.get(propertyName);
+        if (codec == null) {
+            return super.newInstance(propertyName, node);
         }
-        return super.newInstance(propertyName, node);
+        if (node.getNodeId() != NodeId.scalar) {
+            throw new YAMLException("Expected a scalar " + propertyName + ", one of " + codec.expected());
+        }
+        String value = ((ScalarNode) node).getValue();
+        Object result = codec.decode(value);
+        if (result == null) {
+            throw new YAMLException("Unknown " + propertyName + " '" + value + "'; expected one of "
+                    + codec.expected());
+        }
+        return result;
     }
 }
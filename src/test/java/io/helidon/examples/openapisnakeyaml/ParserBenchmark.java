@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Parser#parse} (with and without a {@link StringPool}, a {@link Projection},
+ * {@link ParserMetrics}, or a {@link ParseBudget}), of a {@link ParseOptions#lazily lazy} parse, of both up to
+ * getting the first path item, and of {@link ParseOptions#inParallel parallel} parsing, {@link Parser#toYAML},
+ * {@link Parser#toJSON}, and {@link RenderedDocumentCache#get} for the test resources and for generated documents
+ * (see {@link SyntheticDocuments}). Run with the {@code benchmarks} Maven profile, which also enables the GC profiler
+ * to report allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final String FIRST_PATH = "/resource0/{id}";
+    private static final ParseOptions GROUP_0 = ParseOptions.defaults()
+            .withProjection(Projection.reachableComponents().withTags("group0"));
+    private static final ParserMetrics METRICS = new ParserMetrics();
+    private static final ParseOptions BUDGET = ParseOptions.defaults().withBudget(ParseBudget.unlimited()
+            .withMaxInputBytes(64 << 20)
+            .withMaxDepth(64)
+            .withMaxNodes(10_000_000)
+            .withMaxAliases(100)
+            .withMaxModelObjects(1_000_000));
+    private static final ParseOptions LAZILY = ParseOptions.defaults().lazily();
+    private static final ParseOptions IN_PARALLEL = ParseOptions.defaults().inParallel(ForkJoinPool.commonPool());
+
+    @Param({"openapi-greeting.yml",
+            "synthetic-100.yml", "synthetic-1000.yml", "synthetic-10000.yml",
+            "synthetic-100.json", "synthetic-1000.json", "synthetic-10000.json"})
+    public String document;
+
+    private byte[] content;
+    private OpenAPI model;
+    private RenderedDocumentCache cache;
+    private RenderedDocumentCache checkingCache;
+
+    @Setup
+    public void setup() throws IOException {
+        content = SyntheticDocuments.load(document);
+        model = Parser.parse(new ByteArrayInputStream(content));
+        cache = new RenderedDocumentCache(2);
+        checkingCache = new RenderedDocumentCache(2, true);
+    }
+
+    @Benchmark
+    public OpenAPI parse() {
+        return Parser.parse(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Parses on four threads at once, each with its own parser, to compare with {@link #parse} for how throughput
+     * scales with threads.
+     */
+    @Benchmark
+    @Threads(4)
+    public OpenAPI parseConcurrently() {
+        return Parser.parse(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Parses sharing equal strings through a new pool for each parse.
+     */
+    @Benchmark
+    public OpenAPI parseWithStringPool() {
+        return Parser.parse(new ByteArrayInputStream(content),
+                ParseOptions.defaults().withStrings(new StringPool(4096)));
+    }
+
+    /**
+     * Parses the operations tagged {@code group0}, a tenth of those in the generated documents.
+     */
+    @Benchmark
+    public OpenAPI parseProjected() {
+        return Parser.parse(new ByteArrayInputStream(content), GROUP_0);
+    }
+
+    /**
+     * Parses recording the statistics of each parse, to measure what a listener costs.
+     */
+    @Benchmark
+    public OpenAPI parseWithMetrics() {
+        Parser.setListener(METRICS);
+        try {
+            return Parser.parse(new ByteArrayInputStream(content));
+        } finally {
+            Parser.setListener(ParserListener.NONE);
+        }
+    }
+
+    /**
+     * Parses within limits which every document benchmarked is well inside, to measure what checking them costs.
+     */
+    @Benchmark
+    public OpenAPI parseWithBudget() {
+        return Parser.parse(new ByteArrayInputStream(content), BUDGET);
+    }
+
+    @Benchmark
+    public OpenAPI parseLazily() {
+        return Parser.parse(new ByteArrayInputStream(content), LAZILY);
+    }
+
+    /**
+     * Parses and gets one path item, as a service does which starts up with a large document and uses little of
+     * it, for comparison with {@link #firstPathLazily()}. The GC profiler's allocation rate shows the difference in
+     * footprint.
+     */
+    @Benchmark
+    public PathItem firstPath() {
+        return Parser.parse(new ByteArrayInputStream(content)).getPaths().getPathItem(FIRST_PATH);
+    }
+
+    @Benchmark
+    public PathItem firstPathLazily() {
+        return Parser.parse(new ByteArrayInputStream(content), LAZILY).getPaths().getPathItem(FIRST_PATH);
+    }
+
+    /**
+     * Parses on the common pool, which has one thread fewer than the number of processors.
+     */
+    @Benchmark
+    public OpenAPI parseInParallel() {
+        return Parser.parse(new ByteArrayInputStream(content), IN_PARALLEL);
+    }
+
+    /**
+     * Parses with SnakeYAML regardless of the input format, as a baseline for the JSON route taken by
+     * {@link #parse()} for JSON documents.
+     */
+    @Benchmark
+    public OpenAPI parseWithSnakeYAML() {
+        return Parser.parseYAML(new ByteArrayInputStream(content));
+    }
+
+    @Benchmark
+    public long toYAML() {
+        CountingWriter writer = new CountingWriter();
+        Parser.toYAML(model, writer);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long toJSON() {
+        CountingWriter writer = new CountingWriter();
+        Parser.toJSON(model, writer);
+        return writer.count;
+    }
+
+    /**
+     * Serves the model from the cache, which (after the first call) costs a map read.
+     */
+    @Benchmark
+    public int cachedYAML() {
+        return cache.get(model, RenderedDocumentCache.Format.YAML).length();
+    }
+
+    /**
+     * Serves the model from a cache which detects changes, which (after the first call) costs the fingerprint walk
+     * of the model that checks it has not changed.
+     */
+    @Benchmark
+    public int cachedYAMLDetectingChanges() {
+        return checkingCache.get(model, RenderedDocumentCache.Format.YAML).length();
+    }
+
+    /**
+     * Discards its output, so the benchmark measures rendering rather than buffer growth.
+     */
+    private static class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of getting a model from a document with {@link Parser#parse} compared to getting it from a snapshot
+ * with {@link Snapshot#load}: each measurement is the first and only call in a fresh JVM, so it includes class
+ * loading and runs in the interpreter, as at service startup.
+ * <p>
+ * So that neither measurement benefits from classes the setup has already loaded, the snapshot is written by
+ * {@link Snapshot#main} in a separate JVM, as a build would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class SnapshotBenchmark {
+
+    @Param({"openapi-greeting.yml", "synthetic-10000.yml"})
+    public String document;
+
+    private Path documentFile;
+    private Path snapshotFile;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        documentFile = Files.createTempFile("openapi", document.substring(document.lastIndexOf('.')));
+        Files.write(documentFile, SyntheticDocuments.load(document));
+        snapshotFile = Files.createTempFile("openapi", ".snapshot");
+        Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), Snapshot.class.getName(), documentFile.toString(),
+                snapshotFile.toString())
+                .redirectOutput(new File(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null"))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Unable to write the snapshot of " + document);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(documentFile);
+        Files.delete(snapshotFile);
+    }
+
+    @Benchmark
+    public OpenAPI parse() throws IOException {
+        try (InputStream is = Files.newInputStream(documentFile)) {
+            return Parser.parse(is);
+        }
+    }
+
+    @Benchmark
+    public OpenAPI load() {
+        return Snapshot.load(snapshotFile);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Builds OpenAPI documents of arbitrary size, in YAML or JSON, for tests and benchmarks, and parses and
+ * serializes documents the way the tests share.
+ * <p>
+ * Names of the form {@code synthetic-<pathCount>.yml} or {@code synthetic-<pathCount>.json} select a generated
+ * document; any other name is loaded from the test resources.
+ */
+class SyntheticDocuments {
+
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    private SyntheticDocuments() {
+    }
+
+    static byte[] load(String name) throws IOException {
+        if (name.startsWith(SYNTHETIC_PREFIX)) {
+            int dot = name.lastIndexOf('.');
+            int pathCount = Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length(), dot));
+            String doc = name.endsWith(".json") ? json(pathCount) : yaml(pathCount);
+            return doc.getBytes(StandardCharsets.UTF_8);
+        }
+        try (InputStream is = SyntheticDocuments.class.getResourceAsStream("/" + name)) {
+            if (is == null) {
+                throw new IOException("Unable to find resource " + name);
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, n);
+            }
+            return baos.toByteArray();
+        }
+    }
+
+    /**
+     * Parses a document from its text.
+     */
+    static OpenAPI parse(String document) {
+        return Parser.parse(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Serializes a model to YAML, the form in which tests compare models.
+     */
+    static String toYAML(OpenAPI openAPI) {
+        StringWriter sw = new StringWriter();
+        Parser.toYAML(openAPI, sw);
+        return sw.toString();
+    }
+
+    static String yaml(int pathCount) {
+        StringBuilder sb = new StringBuilder("---\n");
+        writeYAML(sb, document(pathCount), 0);
+        return sb.toString();
+    }
+
+    static String json(int pathCount) {
+        StringBuilder sb = new StringBuilder();
+        writeJSON(sb, document(pathCount));
+        return sb.append('\n').toString();
+    }
+
+    static Map<String, Object> document(int pathCount) {
+        Map<String, Object> paths = new LinkedHashMap<>();
+        for (int i = 0; i < pathCount; i++) {
+            paths.put("/resource" + i + "/{id}", pathItem(i));
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("openapi", "3.0.0");
+        doc.put("info", map("title", "Synthetic API with " + pathCount + " paths",
+                "description", "Generated document for tests and benchmarks",
+                "version", "1.0.0"));
+        doc.put("servers", Collections.singletonList(map("url", "http://localhost:8000",
+                "description", "Local test server")));
+        doc.put("paths", paths);
+        return doc;
+    }
+
+    private static Map<String, Object> pathItem(int i) {
+        Map<String, Object> idSchema = map("type", "string");
+        Map<String, Object> get = map(
+                "summary", "Returns resource " + i,
+                "description", "Looks up a single instance of resource " + i + " by its ID",
+                "operationId", "getResource" + i,
+                "tags", Collections.singletonList("group" + (i % 10)),
+                "parameters", Collections.singletonList(map(
+                        "name", "id",
+                        "in", "path",
+                        "required", Boolean.TRUE,
+                        "description", "ID of the resource",
+                        "schema", idSchema)),
+                "responses", map(
+                        "200", map(
+                                "description", "The resource",
+                                "content", map("application/json", map("schema", map(
+                                        "type", "object",
+                                        "required", asList("id", "name"),
+                                        "properties", map(
+                                                "id", map("type", "string"),
+                                                "name", map("type", "string"),
+                                                "count", map("type", "integer", "format", "int32"),
+                                                "active", map("type", "boolean")))))),
+                        "404", map("description", "Resource not found")));
+        Map<String, Object> delete = map(
+                "summary", "Deletes resource " + i,
+                "operationId", "deleteResource" + i,
+                "responses", map("204", map("description", "Resource deleted")));
+        return map("get", get, "delete", delete);
+    }
+
+    private static Map<String, Object> map(Object... keysAndValues) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            result.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return result;
+    }
+
+    private static void writeYAML(StringBuilder sb, Map<String, Object> map, int indent) {
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            indent(sb, indent).append(yamlScalar(entry.getKey())).append(':');
+            writeYAMLValue(sb, entry.getValue(), indent);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeYAMLValue(StringBuilder sb, Object value, int indent) {
+        if (value instanceof Map) {
+            sb.append('\n');
+            writeYAML(sb, (Map<String, Object>) value, indent + 2);
+        } else if (value instanceof List) {
+            sb.append('\n');
+            for (Object element : (List<Object>) value) {
+                indent(sb, indent).append("-");
+                if (element instanceof Map) {
+                    sb.append('\n');
+                    writeYAML(sb, (Map<String, Object>) element, indent + 2);
+                } else {
+                    sb.append(' ').append(yamlScalar(element)).append('\n');
+                }
+            }
+        } else {
+            sb.append(' ').append(yamlScalar(value)).append('\n');
+        }
+    }
+
+    private static String yamlScalar(Object value) {
+        if (value instanceof String) {
+            String s = (String) value;
+            return s.chars().allMatch(c -> Character.isLetter(c) || c == '/' || c == '_')
+                    ? s
+                    : "'" + s.replace("'", "''") + "'";
+        }
+        return String.valueOf(value);
+    }
+
+    private static StringBuilder indent(StringBuilder sb, int indent) {
+        for (int i = 0; i < indent; i++) {
+            sb.append(' ');
+        }
+        return sb;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeJSON(StringBuilder sb, Object value) {
+        if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                writeJSON(sb, entry.getKey());
+                sb.append(':');
+                writeJSON(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof List) {
+            sb.append('[');
+            boolean first = true;
+            for (Object element : (List<Object>) value) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                writeJSON(sb, element);
+            }
+            sb.append(']');
+        } else if (value instanceof String) {
+            sb.append('"').append(((String) value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        } else {
+            sb.append(value);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestAsyncParsing {
+
+    @Test
+    public void testSameAsBlockingParse() throws Exception {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-100.yml", "synthetic-100.json"}) {
+            byte[] content = SyntheticDocuments.load(document);
+            for (int chunkSize : new int[] {1, 7, 4096}) {
+                ChunkPublisher publisher = new ChunkPublisher(content, chunkSize);
+                CompletableFuture<OpenAPI> result = Parser.parse(publisher, Runnable::run);
+                publisher.drain();
+                assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content))), SyntheticDocuments.toYAML(result.get()),
+                        document + " in chunks of " + chunkSize);
+                assertEquals(1, publisher.maxOutstanding);
+            }
+        }
+    }
+
+    @Test
+    public void testFlowStyleYAML() throws Exception {
+        byte[] content = "{openapi: 3.0.0, info: {title: Flow, version: '1'}}".getBytes(StandardCharsets.UTF_8);
+        ChunkPublisher publisher = new ChunkPublisher(content, 8);
+        CompletableFuture<OpenAPI> result = Parser.parse(publisher, Runnable::run);
+        publisher.drain();
+        assertEquals("Flow", result.get().getInfo().getTitle());
+    }
+
+    @Test
+    public void testListener() throws Exception {
+        List<ParserStatistics> parses = new ArrayList<>();
+        Parser.setListener(new ParserListener() {
+            @Override
+            public void parsed(ParserStatistics statistics) {
+                parses.add(statistics);
+            }
+        });
+        try {
+            for (String document : new String[] {"synthetic-100.yml", "synthetic-100.json"}) {
+                byte[] content = SyntheticDocuments.load(document);
+                ChunkPublisher publisher = new ChunkPublisher(content, 4096);
+                CompletableFuture<OpenAPI> result = Parser.parse(publisher, Runnable::run);
+                publisher.drain();
+                result.get();
+                Parser.parse(new ByteArrayInputStream(content));
+                assertEquals(2, parses.size(), document);
+                // The document is ASCII, so it has as many characters as bytes.
+                assertEquals(content.length, parses.get(0).documentSize(), document);
+                assertEquals(parses.get(1).nodes(), parses.get(0).nodes(), document);
+                assertEquals(parses.get(1).modelObjects(), parses.get(0).modelObjects(), document);
+                parses.clear();
+            }
+        } finally {
+            Parser.setListener(ParserListener.NONE);
+        }
+    }
+
+    @Test
+    public void testBudget() throws Exception {
+        for (String document : new String[] {"synthetic-100.yml", "synthetic-100.json"}) {
+            byte[] content = SyntheticDocuments.load(document);
+            ParseBudget budget = ParseBudget.unlimited().withMaxInputBytes(content.length).withMaxDepth(64);
+            ChunkPublisher publisher = new ChunkPublisher(content, 4096);
+            CompletableFuture<OpenAPI> result = parse(publisher, budget);
+            publisher.drain();
+            assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content))),
+                    SyntheticDocuments.toYAML(result.get()), document);
+
+            // The upload is cancelled as soon as it is too large.
+            publisher = new ChunkPublisher(content, 100);
+            result = parse(publisher, ParseBudget.unlimited().withMaxInputBytes(1000));
+            publisher.drain();
+            assertExceeded(ParseBudget.Limit.INPUT_BYTES, result);
+            assertTrue(publisher.cancelled);
+            assertEquals(1100, publisher.position, document);
+
+            // The other limits apply to the parse once the upload is complete.
+            publisher = new ChunkPublisher(content, 4096);
+            result = parse(publisher, ParseBudget.unlimited().withMaxNodes(100));
+            publisher.drain();
+            assertExceeded(ParseBudget.Limit.NODES, result);
+
+            publisher = new ChunkPublisher(content, 4096);
+            result = parse(publisher, ParseBudget.unlimited().withMaxModelObjects(PathItem.class, 10));
+            publisher.drain();
+            assertExceeded(ParseBudget.Limit.MODEL_OBJECTS, result);
+        }
+    }
+
+    @Test
+    public void testSplitCharacters() throws Exception {
+        byte[] content = ("\uFEFFopenapi: 3.0.0\ninfo:\n  title: Caf\u00e9 \u20ac \ud83d\ude00\n  version: '1'\n")
+                .getBytes(StandardCharsets.UTF_8);
+        ChunkPublisher publisher = new ChunkPublisher(content, 1);
+        CompletableFuture<OpenAPI> result = Parser.parse(publisher, Runnable::run);
+        publisher.drain();
+        assertEquals("Caf\u00e9 \u20ac \ud83d\ude00", result.get().getInfo().getTitle());
+
+        publisher = new ChunkPublisher(new byte[] {'a', ':', ' ', (byte) 0xC3, 'b'}, 2);
+        result = Parser.parse(publisher, Runnable::run);
+        publisher.drain();
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        assertTrue(e.getCause() instanceof CharacterCodingException);
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void testCancel() throws IOException {
+        ChunkPublisher publisher = new ChunkPublisher(SyntheticDocuments.load("synthetic-100.yml"), 100);
+        CompletableFuture<OpenAPI> result = Parser.parse(publisher, Runnable::run);
+        publisher.next();
+        publisher.next();
+        assertFalse(publisher.cancelled);
+        result.cancel(false);
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void testConcurrentUploadsShareOneThread() throws Exception {
+        byte[] content = SyntheticDocuments.load("synthetic-100.yml");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<ChunkPublisher> publishers = new ArrayList<>();
+            List<CompletableFuture<OpenAPI>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                ChunkPublisher publisher = new ChunkPublisher(content, 1000);
+                publishers.add(publisher);
+                results.add(Parser.parse(publisher, executor));
+            }
+            // Interleave the uploads one chunk at a time, none of them occupying the executor until it completes.
+            boolean more = true;
+            while (more) {
+                more = false;
+                for (ChunkPublisher publisher : publishers) {
+                    more |= publisher.next();
+                }
+            }
+            String expected = SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content)));
+            for (CompletableFuture<OpenAPI> result : results) {
+                assertEquals(expected, SyntheticDocuments.toYAML(result.get(30, TimeUnit.SECONDS)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static CompletableFuture<OpenAPI> parse(Flow.Publisher<ByteBuffer> publisher, ParseBudget budget) {
+        return Parser.parse(publisher, Runnable::run, ParseOptions.defaults().withBudget(budget));
+    }
+
+    private static void assertExceeded(ParseBudget.Limit limit, CompletableFuture<OpenAPI> result) {
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        assertTrue(e.getCause() instanceof ParseBudgetExceededException, String.valueOf(e.getCause()));
+        assertEquals(limit, ((ParseBudgetExceededException) e.getCause()).limit());
+    }
+
+    /**
+     * Publishes a byte array in chunks, each only when the test calls {@link #next} and the subscriber has requested
+     * it.
+     */
+    private static final class ChunkPublisher implements Flow.Publisher<ByteBuffer>, Flow.Subscription {
+
+        private final byte[] content;
+        private final int chunkSize;
+        private Flow.Subscriber<? super ByteBuffer> subscriber;
+        private int position;
+        private long requested;
+        private long maxOutstanding;
+        private volatile boolean cancelled;
+
+        ChunkPublisher(byte[] content, int chunkSize) {
+            this.content = content;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            requested += n;
+            maxOutstanding = Math.max(maxOutstanding, requested);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Sends the next chunk, or completes, if the subscriber has asked for more.
+         *
+         * @return whether there is more to send
+         */
+        boolean next() {
+            if (cancelled || position > content.length || requested == 0) {
+                return false;
+            }
+            if (position == content.length) {
+                position++;
+                subscriber.onComplete();
+                return false;
+            }
+            int length = Math.min(chunkSize, content.length - position);
+            requested--;
+            ByteBuffer chunk = ByteBuffer.wrap(content, position, length);
+            position += length;
+            subscriber.onNext(chunk);
+            return true;
+        }
+
+        void drain() {
+            while (next()) {
+                // Keep sending until complete.
+            }
+        }
+    }
+}
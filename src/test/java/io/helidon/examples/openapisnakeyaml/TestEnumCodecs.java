@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.headers.Header;
+import org.eclipse.microprofile.openapi.models.media.Encoding;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.security.SecurityScheme;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEnumCodecs {
+
+    private static final String ENUMS = "openapi: 3.0.0\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    get:\n"
+            + "      parameters:\n"
+            + "      - name: tags\n"
+            + "        in: query\n"
+            + "        style: spaceDelimited\n"
+            + "        schema:\n"
+            + "          type: array\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: pets\n"
+            + "    post:\n"
+            + "      requestBody:\n"
+            + "        content:\n"
+            + "          multipart/form-data:\n"
+            + "            encoding:\n"
+            + "              tags:\n"
+            + "                style: PIPE_DELIMITED\n"
+            + "      responses:\n"
+            + "        '201':\n"
+            + "          description: created\n"
+            + "components:\n"
+            + "  headers:\n"
+            + "    Rate-Limit:\n"
+            + "      style: simple\n"
+            + "  securitySchemes:\n"
+            + "    api_key:\n"
+            + "      type: APIKEY\n"
+            + "      in: header\n"
+            + "      name: api_key\n"
+            + "    oidc:\n"
+            + "      type: openidconnect\n";
+
+    @Test
+    public void testEveryConstantRoundTrips() {
+        Class<?>[] enumTypes = {PathItem.HttpMethod.class, Header.Style.class, Encoding.Style.class,
+                Schema.SchemaType.class, Parameter.In.class, Parameter.Style.class, SecurityScheme.In.class,
+                SecurityScheme.Type.class};
+        for (Class<?> enumType : enumTypes) {
+            EnumCodecs.Codec<?> codec = EnumCodecs.codecFor(enumType);
+            for (Object constant : enumType.getEnumConstants()) {
+                Enum<?> e = (Enum<?>) constant;
+                String spelling = EnumCodecs.encode(e);
+                assertSame(e, codec.decode(spelling), spelling);
+                assertSame(e, codec.decode(e.name()), e.name());
+                assertSame(e, codec.decode(spelling.toUpperCase(Locale.ROOT)), spelling);
+                assertSame(e, codec.decode(e.name().toLowerCase(Locale.ROOT)), e.name());
+            }
+            assertNull(codec.decode("unknown"));
+            assertNull(codec.decode(""));
+        }
+        assertEquals("spaceDelimited", EnumCodecs.encode(Parameter.Style.SPACEDELIMITED));
+        assertEquals("deepObject", EnumCodecs.encode(Encoding.Style.DEEP_OBJECT));
+        assertEquals("openIdConnect", EnumCodecs.encode(SecurityScheme.Type.OPENIDCONNECT));
+        assertEquals("get", EnumCodecs.encode(PathItem.HttpMethod.GET));
+    }
+
+    @Test
+    public void testParseAndWrite() {
+        OpenAPI openAPI = SyntheticDocuments.parse(ENUMS);
+        Parameter parameter = openAPI.getPaths().getPathItem("/pets").getGET().getParameters().get(0);
+        assertSame(Parameter.In.QUERY, parameter.getIn());
+        assertSame(Parameter.Style.SPACEDELIMITED, parameter.getStyle());
+        assertSame(Encoding.Style.PIPE_DELIMITED, openAPI.getPaths().getPathItem("/pets").getPOST().getRequestBody()
+                .getContent().getMediaType("multipart/form-data").getEncoding().get("tags").getStyle());
+        assertSame(Header.Style.SIMPLE, openAPI.getComponents().getHeaders().get("Rate-Limit").getStyle());
+        assertSame(SecurityScheme.Type.APIKEY, openAPI.getComponents().getSecuritySchemes().get("api_key").getType());
+        assertSame(SecurityScheme.In.HEADER, openAPI.getComponents().getSecuritySchemes().get("api_key").getIn());
+        assertSame(SecurityScheme.Type.OPENIDCONNECT,
+                openAPI.getComponents().getSecuritySchemes().get("oidc").getType());
+
+        StringWriter streamed = new StringWriter();
+        Parser.toYAML(openAPI, streamed);
+        String yaml = streamed.toString();
+        for (String expected : new String[] {"in: query", "style: spaceDelimited", "type: array",
+                "style: pipeDelimited", "style: simple", "type: apiKey", "in: header", "type: openIdConnect"}) {
+            assertTrue(yaml.contains(expected), expected);
+        }
+        StringWriter nodeBased = new StringWriter();
+        new Yaml(new Parser.CustomRepresenter(), Parser.dumperOptions())
+                .dump(openAPI, new Parser.TagSuppressingWriter(nodeBased));
+        assertEquals(nodeBased.toString(), yaml);
+        assertEquals(yaml, SyntheticDocuments.toYAML(SyntheticDocuments.parse(yaml)));
+    }
+
+    @Test
+    public void testUnknownValueReported() {
+        YAMLException e = assertThrows(YAMLException.class,
+                () -> SyntheticDocuments.parse(ENUMS.replace("style: spaceDelimited", "style: sideways")));
+        assertTrue(e.getMessage().contains("'sideways'"), e.getMessage());
+        assertTrue(e.getMessage().contains("matrix, label, form, simple, spaceDelimited, pipeDelimited, deepObject"),
+                e.getMessage());
+    }
+
+    @Test
+    public void testDecodeDoesNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        EnumCodecs.Codec<Parameter.Style> codec = EnumCodecs.codec(Parameter.Style.class);
+        String[] inputs = {"form", "spaceDelimited", "PIPEDELIMITED", "DeepObject", "unknown"};
+        long threadId = Thread.currentThread().getId();
+        int found = 0;
+        for (int i = 0; i < 10_000; i++) {
+            found += codec.decode(inputs[i % inputs.length]) == null ? 0 : 1;
+        }
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            found += codec.decode(inputs[i % inputs.length]) == null ? 0 : 1;
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+        assertEquals(88_000, found);
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.servers.Server;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFragmentLoader {
+
+    private static final String PETS = "openapi: 3.0.0\n"
+            + "info:\n"
+            + "  title: Pets\n"
+            + "  version: '1'\n"
+            + "servers:\n"
+            + "- url: https://api.example.com\n"
+            + "tags:\n"
+            + "- name: common\n"
+            + "  description: Shared\n"
+            + "- name: pets\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    summary: pets\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n";
+
+    private static final String STORE = "openapi: 3.0.0\n"
+            + "info:\n"
+            + "  title: Store\n"
+            + "  version: '1'\n"
+            + "servers:\n"
+            + "- url: https://api.example.com\n"
+            + "- url: https://store.example.com\n"
+            + "security:\n"
+            + "- api_key: []\n"
+            + "tags:\n"
+            + "- name: common\n"
+            + "  description: Shared\n"
+            + "- name: store\n"
+            + "paths:\n"
+            + "  /orders:\n"
+            + "    summary: orders\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Order:\n"
+            + "      type: object\n"
+            + "  securitySchemes:\n"
+            + "    api_key:\n"
+            + "      type: apiKey\n"
+            + "      name: X-API-Key\n"
+            + "      in: header\n";
+
+    private static final String MORE_PETS = "openapi: 3.0.0\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    summary: more pets\n";
+
+    @Test
+    public void testMerge() {
+        OpenAPI merged = FragmentLoader.parse(streams(PETS, STORE), FragmentLoader.ConflictPolicy.FAIL,
+                Runnable::run);
+
+        assertEquals("Pets", merged.getInfo().getTitle());
+        assertEquals(Arrays.asList("/pets", "/orders"), new ArrayList<>(merged.getPaths().keySet()));
+        assertEquals(Arrays.asList("Pet", "Order"), new ArrayList<>(merged.getComponents().getSchemas().keySet()));
+        assertEquals(Collections.singleton("api_key"), merged.getComponents().getSecuritySchemes().keySet());
+        assertEquals(Arrays.asList("common", "pets", "store"),
+                merged.getTags().stream().map(Tag::getName).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("https://api.example.com", "https://store.example.com"),
+                merged.getServers().stream().map(Server::getUrl).collect(Collectors.toList()));
+        assertEquals(1, merged.getSecurity().size());
+    }
+
+    @Test
+    public void testConflictPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> FragmentLoader.parse(streams(PETS, MORE_PETS),
+                FragmentLoader.ConflictPolicy.FAIL, Runnable::run));
+        assertEquals("pets", FragmentLoader.parse(streams(PETS, MORE_PETS),
+                FragmentLoader.ConflictPolicy.KEEP_FIRST, Runnable::run).getPaths().getPathItem("/pets").getSummary());
+        assertEquals("more pets", FragmentLoader.parse(streams(PETS, MORE_PETS),
+                FragmentLoader.ConflictPolicy.KEEP_LAST, Runnable::run).getPaths().getPathItem("/pets").getSummary());
+    }
+
+    @Test
+    public void testPathsAndComponentsExtensions() {
+        OpenAPI pets = SyntheticDocuments.parse(PETS);
+        pets.getPaths().addExtension("x-owner", "pets team");
+        pets.getComponents().addExtension("x-version", "1");
+        OpenAPI store = SyntheticDocuments.parse(STORE);
+        store.getPaths().addExtension("x-audited", true);
+        store.getComponents().addExtension("x-version", "1");
+
+        // Equal values do not conflict.
+        OpenAPI merged = FragmentLoader.merge(Arrays.asList(pets, store), FragmentLoader.ConflictPolicy.FAIL);
+        assertEquals("pets team", merged.getPaths().getExtensions().get("x-owner"));
+        assertEquals(true, merged.getPaths().getExtensions().get("x-audited"));
+        assertEquals(Collections.singletonMap("x-version", "1"), merged.getComponents().getExtensions());
+
+        store.getPaths().addExtension("x-owner", "store team");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FragmentLoader.merge(Arrays.asList(pets, store), FragmentLoader.ConflictPolicy.FAIL));
+        assertTrue(e.getMessage().contains("/paths/x-owner"), e.getMessage());
+        assertEquals("pets team", FragmentLoader.merge(Arrays.asList(pets, store),
+                FragmentLoader.ConflictPolicy.KEEP_FIRST).getPaths().getExtensions().get("x-owner"));
+        assertEquals("store team", FragmentLoader.merge(Arrays.asList(pets, store),
+                FragmentLoader.ConflictPolicy.KEEP_LAST).getPaths().getExtensions().get("x-owner"));
+    }
+
+    /**
+     * Parses the fragments in the reverse of their merge order and checks that the result is as if they had been
+     * parsed in order.
+     */
+    @Test
+    public void testMergeOrderIndependentOfCompletionOrder() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try {
+            for (String fragment : new String[] {PETS, STORE, MORE_PETS}) {
+                Path file = Files.createTempFile("fragment", ".yml");
+                Files.write(file, fragment.getBytes(StandardCharsets.UTF_8));
+                files.add(file);
+            }
+            OpenAPI inOrder = FragmentLoader.load(files, FragmentLoader.ConflictPolicy.KEEP_LAST, Runnable::run);
+            OpenAPI reversed = FragmentLoader.load(files, FragmentLoader.ConflictPolicy.KEEP_LAST,
+                    new ReversingExecutor(files.size()));
+            assertEquals(SyntheticDocuments.toYAML(inOrder), SyntheticDocuments.toYAML(reversed));
+            assertEquals("more pets", reversed.getPaths().getPathItem("/pets").getSummary());
+        } finally {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static List<InputStream> streams(String... fragments) {
+        List<InputStream> result = new ArrayList<>();
+        for (String fragment : fragments) {
+            result.add(new ByteArrayInputStream(fragment.getBytes(StandardCharsets.UTF_8)));
+        }
+        return result;
+    }
+
+    /**
+     * Holds tasks until the expected number have been submitted, then runs them last to first.
+     */
+    private static class ReversingExecutor implements Executor {
+
+        private final int expected;
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        ReversingExecutor(int expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+            if (tasks.size() == expected) {
+                for (int i = tasks.size() - 1; i >= 0; i--) {
+                    tasks.get(i).run();
+                }
+            }
+        }
+    }
+}
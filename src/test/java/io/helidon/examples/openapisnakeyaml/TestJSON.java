@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.parser.ParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestJSON {
+
+    @Test
+    public void testJSONParserMatchesSnakeYAML() throws IOException {
+        byte[] json = SyntheticDocuments.load("synthetic-100.json");
+        OpenAPI viaJSONParser = Parser.parse(new ByteArrayInputStream(json));
+        OpenAPI viaSnakeYAML = Parser.parseYAML(new ByteArrayInputStream(json));
+        assertEquals(SyntheticDocuments.toYAML(viaSnakeYAML), SyntheticDocuments.toYAML(viaJSONParser));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-100.yml"}) {
+            OpenAPI original = Parser.parse(new ByteArrayInputStream(SyntheticDocuments.load(document)));
+
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            Parser.toJSON(original, json);
+            OpenAPI reread = Parser.parse(new ByteArrayInputStream(json.toByteArray()));
+
+            assertEquals(SyntheticDocuments.toYAML(original), SyntheticDocuments.toYAML(reread), document);
+        }
+    }
+
+    @Test
+    public void testOutput() {
+        OpenAPI openAPI = Parser.parseJSON(new StringReader(
+                "{\"openapi\": \"3.0.0\", \"info\": {\"title\": \"A \\\"quoted\\\"\\ntitle\", \"version\": \"1\"}}"));
+        StringWriter sw = new StringWriter();
+        Parser.toJSON(openAPI, sw);
+        assertEquals("{\n"
+                + "  \"info\": {\n"
+                + "    \"title\": \"A \\\"quoted\\\"\\ntitle\",\n"
+                + "    \"version\": \"1\"\n"
+                + "  },\n"
+                + "  \"openapi\": \"3.0.0\"\n"
+                + "}\n", sw.toString());
+    }
+
+    @Test
+    public void testMalformedInput() {
+        assertThrows(ParserException.class, () -> Parser.parse(new ByteArrayInputStream(
+                "{\"openapi\": \"3.0.0\",".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testByteOrderMark() {
+        String document = "{\"openapi\": \"3.0.0\", \"paths\": {}}";
+        String expected = SyntheticDocuments.toYAML(Parser.parseJSON(new StringReader(document)));
+        assertEquals(expected, SyntheticDocuments.toYAML(Parser.parseJSON(new StringReader("\uFEFF" + document))));
+        assertEquals(expected, SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(
+                ("\uFEFF" + document).getBytes(StandardCharsets.UTF_8)))));
+
+        // Anywhere but the start, it is not white space.
+        assertThrows(ParserException.class, () -> Parser.parseJSON(new StringReader("\uFEFF\uFEFF" + document)));
+        assertThrows(ParserException.class, () -> Parser.parseJSON(new StringReader(
+                "{\"openapi\":\uFEFF \"3.0.0\", \"paths\": {}}")));
+    }
+
+    @Test
+    public void testFlowStyleYAML() {
+        // Each starts like JSON, but with a plain key, so it is read as YAML from the start.
+        String expected = SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(
+                "openapi: 3.0.0\npaths: {}\n".getBytes(StandardCharsets.UTF_8))));
+        for (String document : new String[] {"{openapi: 3.0.0, paths: {}}",
+                "\uFEFF \n{ openapi: 3.0.0, \"paths\": {}}",
+                "{ # comment\n  openapi: 3.0.0, paths: {}}"}) {
+            byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected, SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(bytes))), document);
+            ParseOptions budget = ParseOptions.defaults().withBudget(ParseBudget.unlimited().withMaxNodes(5));
+            assertEquals(expected, SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(bytes), budget)),
+                    document);
+            assertEquals(expected, SyntheticDocuments.toYAML(Parser.construct(Parser.compose(new ByteArrayInputStream(bytes)),
+                    OpenAPI.class)), document);
+        }
+
+        // One which starts with a quoted key is read as JSON, and must be JSON throughout.
+        assertThrows(ParserException.class, () -> Parser.parse(new ByteArrayInputStream(
+                "{\"openapi\": \"3.0.0\", \"paths\": {},}".getBytes(StandardCharsets.UTF_8))));
+    }
+}
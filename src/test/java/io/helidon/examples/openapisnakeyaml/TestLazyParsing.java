@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLazyParsing {
+
+    private static final String SCHEMAS = "openapi: 3.0.0\n"
+            + "paths: {}\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "      properties:\n"
+            + "        name:\n"
+            + "          type: string\n"
+            + "    Pets:\n"
+            + "      type: array\n"
+            + "      items:\n"
+            + "        $ref: '#/components/schemas/Pet'\n";
+
+    @Test
+    public void testSameModelAsEager() throws IOException {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-100.yml", "synthetic-100.json"}) {
+            byte[] content = SyntheticDocuments.load(document);
+            assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content))),
+                    SyntheticDocuments.toYAML(parseLazily(content)), document);
+        }
+        byte[] schemas = SCHEMAS.getBytes(StandardCharsets.UTF_8);
+        assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(schemas))),
+                SyntheticDocuments.toYAML(parseLazily(schemas)));
+    }
+
+    @Test
+    public void testBuiltOnAccess() throws IOException {
+        OpenAPI openAPI = parseLazily(SyntheticDocuments.load("synthetic-100.yml"));
+        assertEquals(100, openAPI.getPaths().size());
+        assertTrue(openAPI.getPaths().hasPathItem("/resource42/{id}"));
+        PathItem pathItem = openAPI.getPaths().getPathItem("/resource42/{id}");
+        assertEquals("getResource42", pathItem.getGET().getOperationId());
+        assertTrue(pathItem == openAPI.getPaths().getPathItem("/resource42/{id}"), "built once");
+
+        openAPI = parseLazily(SCHEMAS.getBytes(StandardCharsets.UTF_8));
+        Schema pets = openAPI.getComponents().getSchemas().get("Pets");
+        assertEquals(Schema.SchemaType.ARRAY, pets.getType());
+        assertEquals("#/components/schemas/Pet", pets.getItems().getRef());
+        assertNotNull(ReferenceResolver.lazy(openAPI).resolve(pets.getItems()).getProperties().get("name"));
+    }
+
+    @Test
+    public void testLazyReferenceResolver() {
+        StringBuilder document = new StringBuilder("openapi: 3.0.0\npaths: {}\ncomponents:\n  schemas:\n");
+        for (int i = 0; i < 500; i++) {
+            document.append("    Schema").append(i).append(":\n      type: object\n");
+        }
+        document.append("    List:\n      type: array\n      items:\n        $ref: '#/components/schemas/Schema42'\n");
+        OpenAPI openAPI = parseLazily(document.toString().getBytes(StandardCharsets.UTF_8));
+        LazyMaps.LazyMap<?> schemas = (LazyMaps.LazyMap<?>) openAPI.getComponents().getSchemas();
+        assertEquals(501, schemas.pending());
+
+        // Only the schemas read or referred to are built.
+        ReferenceResolver resolver = ReferenceResolver.lazy(openAPI);
+        assertEquals(501, schemas.pending());
+        Schema list = openAPI.getComponents().getSchemas().get("List");
+        assertEquals(Schema.SchemaType.OBJECT, resolver.resolve(list.getItems()).getType());
+        assertEquals(499, schemas.pending());
+    }
+
+    private static OpenAPI parseLazily(byte[] content) {
+        return Parser.parse(new ByteArrayInputStream(content), ParseOptions.defaults().lazily());
+    }
+}
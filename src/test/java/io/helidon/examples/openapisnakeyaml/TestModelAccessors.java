@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import io.smallrye.openapi.api.models.OperationImpl;
+import io.smallrye.openapi.api.models.PathItemImpl;
+import io.smallrye.openapi.api.models.PathsImpl;
+import io.smallrye.openapi.api.models.media.SchemaImpl;
+import io.smallrye.openapi.api.models.parameters.ParameterImpl;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.introspector.PropertyUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestModelAccessors {
+
+    @Test
+    public void testSamePropertiesAsSnakeYAML() {
+        PropertyUtils reflective = new PropertyUtils();
+        PropertyUtils compiled = new ModelAccessors.ModelPropertyUtils();
+        for (Class<?> type : Arrays.asList(SchemaImpl.class, OperationImpl.class, PathItemImpl.class,
+                ParameterImpl.class, PathsImpl.class, Schema.class, PathItem.class)) {
+            assertEquals(names(reflective, type), names(compiled, type), type.getName());
+            for (Property property : compiled.getProperties(type)) {
+                Property expected = reflective.getProperty(type, property.getName());
+                assertEquals(expected.getType(), property.getType(), property.getName());
+                assertArrayEquals(expected.getActualTypeArguments(), property.getActualTypeArguments(),
+                        property.getName());
+            }
+        }
+    }
+
+    @Test
+    public void testAccessors() throws Exception {
+        Schema schema = (Schema) ModelAccessors.newInstance(SchemaImpl.class);
+        ModelAccessors.property(Schema.class, "title").set(schema, "Pet");
+        ModelAccessors.property(SchemaImpl.class, "minimum").set(schema, BigDecimal.ONE);
+        ModelAccessors.property(SchemaImpl.class, "required").set(schema, Collections.singletonList("name"));
+        assertEquals("Pet", schema.getTitle());
+        assertEquals("Pet", ModelAccessors.property(SchemaImpl.class, "title").get(schema));
+        assertEquals(BigDecimal.ONE, schema.getMinimum());
+        assertEquals(Collections.singletonList("name"), schema.getRequired());
+
+        PathItem pathItem = new PathItemImpl();
+        Operation get = new OperationImpl();
+        ModelAccessors.property(PathItem.class, "GET").set(pathItem, get);
+        assertSame(get, pathItem.getGET());
+        assertSame(ModelAccessors.property(PathItem.class, "GET"), ModelAccessors.property(PathItem.class, "GET"));
+    }
+
+    private static List<String> names(PropertyUtils propertyUtils, Class<?> type) {
+        return propertyUtils.getProperties(type).stream().map(Property::getName).collect(Collectors.toList());
+    }
+}
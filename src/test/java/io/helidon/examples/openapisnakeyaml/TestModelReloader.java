@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestModelReloader {
+
+    private static final String DOCUMENT = "openapi: 3.0.0\n"
+            + "info:\n"
+            + "  title: Pets\n"
+            + "  version: '1'\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    get:\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: pets\n"
+            + "  /pets/{id}:\n"
+            + "    get:\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: pet\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "    Tag:\n"
+            + "      type: string\n"
+            + "  responses:\n"
+            + "    Error:\n"
+            + "      description: error\n";
+
+    private Path file;
+
+    @BeforeEach
+    public void createFile() throws IOException {
+        file = Files.createTempFile("openapi", ".yml");
+        write(DOCUMENT);
+    }
+
+    @AfterEach
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testChangedPathItemsReplaced() throws IOException {
+        ModelReloader reloader = new ModelReloader(file);
+        OpenAPI first = reloader.current();
+        assertNull(reloader.reload());
+        assertSame(first, reloader.current());
+
+        write(DOCUMENT.replace("description: pet\n", "description: one pet\n")
+                .replace("components:\n", "  /stores:\n    get:\n      responses:\n"
+                        + "        '200':\n          description: stores\ncomponents:\n"));
+        ModelReloader.Change change = reloader.reload();
+        assertEquals(Arrays.asList("/paths/~1pets~1{id}", "/paths/~1stores"), change.pointers());
+        assertFalse(change.isRebuilt());
+        assertSame(first, change.previous());
+        OpenAPI second = reloader.current();
+        assertSame(second, change.current());
+        assertSame(first.getPaths().getPathItem("/pets"), second.getPaths().getPathItem("/pets"));
+        assertNotSame(first.getPaths().getPathItem("/pets/{id}"), second.getPaths().getPathItem("/pets/{id}"));
+        assertSame(first.getInfo(), second.getInfo());
+        assertSame(first.getComponents(), second.getComponents());
+        assertEquals("pet", first.getPaths().getPathItem("/pets/{id}").getGET().getResponses().getAPIResponse("200")
+                .getDescription());
+        assertNull(first.getPaths().getPathItem("/stores"));
+        assertEquals(SyntheticDocuments.toYAML(parse()), SyntheticDocuments.toYAML(second));
+    }
+
+    @Test
+    public void testChangedSchemasReplaced() throws IOException {
+        ModelReloader reloader = new ModelReloader(file);
+        OpenAPI first = reloader.current();
+
+        write(DOCUMENT.replace("    Tag:\n      type: string\n", ""));
+        ModelReloader.Change change = reloader.reload();
+        assertEquals(Collections.singletonList("/components/schemas/Tag"), change.pointers());
+        assertFalse(change.isRebuilt());
+        OpenAPI second = reloader.current();
+        assertSame(first.getPaths(), second.getPaths());
+        assertSame(first.getComponents().getResponses(), second.getComponents().getResponses());
+        assertSame(first.getComponents().getSchemas().get("Pet"), second.getComponents().getSchemas().get("Pet"));
+        assertEquals(2, first.getComponents().getSchemas().size());
+        assertEquals(SyntheticDocuments.toYAML(parse()), SyntheticDocuments.toYAML(second));
+    }
+
+    @Test
+    public void testOtherChangesRebuild() throws IOException {
+        ModelReloader reloader = new ModelReloader(file);
+        OpenAPI first = reloader.current();
+
+        write(DOCUMENT.replace("title: Pets", "title: Pet store").replace("description: error", "description: x"));
+        ModelReloader.Change change = reloader.reload();
+        assertEquals(Arrays.asList("/info", "/components/responses"), change.pointers());
+        assertTrue(change.isRebuilt());
+        assertEquals("Pets", first.getInfo().getTitle());
+        assertEquals("Pet store", reloader.current().getInfo().getTitle());
+        assertEquals(SyntheticDocuments.toYAML(parse()), SyntheticDocuments.toYAML(reloader.current()));
+    }
+
+    @Test
+    public void testPathsExtensionRebuilds() throws IOException {
+        ModelReloader reloader = new ModelReloader(file);
+
+        write(DOCUMENT.replace("paths:\n", "paths:\n  x-owner:\n    summary: pets team\n"));
+        ModelReloader.Change change = reloader.reload();
+        assertEquals(Collections.singletonList("/paths/x-owner"), change.pointers());
+        assertTrue(change.isRebuilt());
+        assertEquals(SyntheticDocuments.toYAML(parse()), SyntheticDocuments.toYAML(reloader.current()));
+
+        // Unchanged, it no longer stops a path item from being updated on its own.
+        write(DOCUMENT.replace("paths:\n", "paths:\n  x-owner:\n    summary: pets team\n")
+                .replace("description: pet\n", "description: one pet\n"));
+        change = reloader.reload();
+        assertFalse(change.isRebuilt());
+        assertEquals(SyntheticDocuments.toYAML(parse()), SyntheticDocuments.toYAML(reloader.current()));
+    }
+
+    @Test
+    public void testSelfReferencingAlias() throws IOException {
+        ModelReloader reloader = new ModelReloader(file);
+
+        write(DOCUMENT.replace("      type: string\n", "      type: string\n      example: &loop [*loop]\n"));
+        ModelReloader.Change change = reloader.reload();
+        assertEquals(Collections.singletonList("/components/schemas/Tag"), change.pointers());
+        List<?> example = (List<?>) reloader.current().getComponents().getSchemas().get("Tag").getExample();
+        assertSame(example, example.get(0));
+        assertNull(reloader.reload());
+    }
+
+    @Test
+    public void testWatch() throws Exception {
+        BlockingQueue<ModelReloader.Change> changes = new ArrayBlockingQueue<>(16);
+        try (ModelReloader reloader = new ModelReloader(file)) {
+            reloader.addListener(changes::add);
+            reloader.watch();
+            write(DOCUMENT.replace("description: pets\n", "description: all pets\n"));
+            ModelReloader.Change change = changes.poll(30, TimeUnit.SECONDS);
+            assertNotNull(change, "no change reported");
+            assertEquals(Collections.singletonList("/paths/~1pets"), change.pointers());
+            assertEquals("all pets", reloader.current().getPaths().getPathItem("/pets").getGET().getResponses()
+                    .getAPIResponse("200").getDescription());
+        }
+    }
+
+    @Test
+    public void testWatchReportsErrors() throws Exception {
+        BlockingQueue<Object> events = new ArrayBlockingQueue<>(16);
+        try (ModelReloader reloader = new ModelReloader(file)) {
+            reloader.addListener(new ModelReloader.Listener() {
+                @Override
+                public void changed(ModelReloader.Change change) {
+                    events.add(change);
+                }
+
+                @Override
+                public void failed(Throwable e) {
+                    events.add(e);
+                }
+            });
+            reloader.watch();
+            StringBuilder deep = new StringBuilder("{\"openapi\": \"3.0.0\", \"x-deep\": ");
+            for (int i = 0; i < 100_000; i++) {
+                deep.append('[');
+            }
+            write(deep.toString());
+            Object failure = events.poll(30, TimeUnit.SECONDS);
+            assertTrue(failure instanceof ParseBudgetExceededException, String.valueOf(failure));
+            assertEquals(ParseBudget.Limit.DEPTH, ((ParseBudgetExceededException) failure).limit());
+
+            // The watcher is still running.
+            write(DOCUMENT.replace("description: pets\n", "description: all pets\n"));
+            Object change = events.poll(30, TimeUnit.SECONDS);
+            assertTrue(change instanceof ModelReloader.Change, String.valueOf(change));
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private OpenAPI parse() throws IOException {
+        return Parser.parse(new ByteArrayInputStream(Files.readAllBytes(file)));
+    }
+}
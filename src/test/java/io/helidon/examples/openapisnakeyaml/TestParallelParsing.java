@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestParallelParsing {
+
+    private static final String COMPONENTS = "openapi: 3.0.0\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    get:\n"
+            + "      parameters:\n"
+            + "      - $ref: '#/components/parameters/limit'\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          $ref: '#/components/responses/Pets'\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "      properties:\n"
+            + "        name:\n"
+            + "          type: string\n"
+            + "  responses:\n"
+            + "    Pets:\n"
+            + "      description: The pets\n"
+            + "      content:\n"
+            + "        application/json:\n"
+            + "          schema:\n"
+            + "            type: array\n"
+            + "            items:\n"
+            + "              $ref: '#/components/schemas/Pet'\n"
+            + "  parameters:\n"
+            + "    limit:\n"
+            + "      name: limit\n"
+            + "      in: query\n"
+            + "  securitySchemes:\n"
+            + "    api_key:\n"
+            + "      type: apiKey\n"
+            + "      name: X-API-Key\n"
+            + "      in: header\n";
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSameModelAsSequential() throws IOException {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-1000.yml", "synthetic-100.json"}) {
+            compare(SyntheticDocuments.load(document), document);
+        }
+        compare(COMPONENTS.getBytes(StandardCharsets.UTF_8), "components");
+    }
+
+    @Test
+    public void testSharedAnchors() {
+        // The anchors come before the aliases, so components come first.
+        StringBuilder sb = new StringBuilder("openapi: 3.0.0\n"
+                + "components:\n"
+                + "  schemas:\n"
+                + "    Error: &errorSchema\n"
+                + "      type: object\n"
+                + "      properties:\n"
+                + "        message:\n"
+                + "          type: string\n"
+                + "    Errors:\n"
+                + "      type: array\n"
+                + "      items: *errorSchema\n"
+                + "  responses: &commonResponses\n"
+                + "    '404':\n"
+                + "      description: Not found\n"
+                + "    '500':\n"
+                + "      description: Server error\n"
+                + "      content:\n"
+                + "        application/json:\n"
+                + "          schema: *errorSchema\n"
+                + "paths:\n");
+        for (int i = 0; i < 20; i++) {
+            sb.append("  /resource").append(i).append(":\n")
+                    .append("    get:\n")
+                    .append("      responses:\n")
+                    .append("        <<: *commonResponses\n")
+                    .append("        '200':\n")
+                    .append("          description: Resource ").append(i).append('\n')
+                    .append("          content:\n")
+                    .append("            application/json:\n")
+                    .append("              schema: *errorSchema\n");
+        }
+        byte[] content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 10; i++) {
+            compare(content, "shared anchors");
+        }
+
+        // Entries which share nodes are built on the calling thread, so an alias is the same object, as it is when
+        // parsing sequentially.
+        OpenAPI openAPI = parseInParallel(content);
+        Schema error = openAPI.getComponents().getSchemas().get("Error");
+        assertSame(error, openAPI.getComponents().getSchemas().get("Errors").getItems());
+        assertSame(error, openAPI.getPaths().getPathItem("/resource7").getGET().getResponses().getAPIResponse("200")
+                .getContent().getMediaType("application/json").getSchema());
+    }
+
+    @Test
+    public void testFailureInEntry() {
+        byte[] document = ("openapi: 3.0.0\n"
+                + "paths:\n"
+                + "  /good:\n"
+                + "    summary: fine\n"
+                + "  /bad:\n"
+                + "    noSuchProperty: true\n").getBytes(StandardCharsets.UTF_8);
+        assertThrows(YAMLException.class, () -> parseInParallel(document));
+    }
+
+    private static void compare(byte[] content, String name) {
+        OpenAPI sequential = Parser.parse(new ByteArrayInputStream(content));
+        OpenAPI parallel = parseInParallel(content);
+        assertEquals(SyntheticDocuments.toYAML(sequential), SyntheticDocuments.toYAML(parallel), name);
+    }
+
+    private static OpenAPI parseInParallel(byte[] content) {
+        return Parser.parse(new ByteArrayInputStream(content), ParseOptions.defaults().inParallel(pool));
+    }
+}
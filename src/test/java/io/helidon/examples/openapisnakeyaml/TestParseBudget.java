@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestParseBudget {
+
+    /**
+     * Each level of aliases multiplies the number of nodes by 9, to over half a million.
+     */
+    private static final String ALIASES = "openapi: 3.0.0\n"
+            + "x-laughs:\n"
+            + "  a: &a [lol, lol, lol, lol, lol, lol, lol, lol, lol]\n"
+            + "  b: &b [*a, *a, *a, *a, *a, *a, *a, *a, *a]\n"
+            + "  c: &c [*b, *b, *b, *b, *b, *b, *b, *b, *b]\n"
+            + "  d: &d [*c, *c, *c, *c, *c, *c, *c, *c, *c]\n"
+            + "  e: &e [*d, *d, *d, *d, *d, *d, *d, *d, *d]\n"
+            + "  f: &f [*e, *e, *e, *e, *e, *e, *e, *e, *e]\n";
+
+    @Test
+    public void testWithinBudget() throws IOException {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-100.yml", "synthetic-100.json"}) {
+            byte[] content = SyntheticDocuments.load(document);
+            ParseBudget budget = ParseBudget.unlimited()
+                    .withMaxInputBytes(content.length)
+                    .withMaxDepth(64)
+                    .withMaxNodes(100_000)
+                    .withMaxAliases(0)
+                    .withMaxModelObjects(1000);
+            assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content))),
+                    SyntheticDocuments.toYAML(parse(new ByteArrayInputStream(content), budget)), document);
+        }
+    }
+
+    @Test
+    public void testInputBytes() throws IOException {
+        byte[] content = SyntheticDocuments.load("synthetic-100.json");
+        assertExceeded(ParseBudget.Limit.INPUT_BYTES, content.length - 1,
+                () -> parse(new ByteArrayInputStream(content),
+                        ParseBudget.unlimited().withMaxInputBytes(content.length - 1)));
+
+        // An endless document fails once the limit is read.
+        InputStream endless = new InputStream() {
+            private final byte[] line = "x-key: value\n".getBytes(StandardCharsets.UTF_8);
+            private long position;
+
+            @Override
+            public int read() {
+                return line[(int) (position++ % line.length)];
+            }
+        };
+        assertExceeded(ParseBudget.Limit.INPUT_BYTES, 1 << 20,
+                () -> parse(endless, ParseBudget.unlimited().withMaxInputBytes(1 << 20)));
+    }
+
+    @Test
+    public void testDepth() {
+        StringBuilder sb = new StringBuilder("{\"openapi\": \"3.0.0\", \"x-deep\": ");
+        for (int i = 0; i < 100_000; i++) {
+            sb.append('[');
+        }
+        byte[] content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        assertExceeded(ParseBudget.Limit.DEPTH, 32,
+                () -> parse(new ByteArrayInputStream(content), ParseBudget.unlimited().withMaxDepth(32)));
+    }
+
+    @Test
+    public void testAliasExpansion() {
+        byte[] content = ALIASES.getBytes(StandardCharsets.UTF_8);
+        assertExceeded(ParseBudget.Limit.ALIASES, 20,
+                () -> parse(new ByteArrayInputStream(content), ParseBudget.unlimited().withMaxAliases(20)));
+        assertExceeded(ParseBudget.Limit.NODES, 10_000,
+                () -> parse(new ByteArrayInputStream(content),
+                        ParseBudget.unlimited().withMaxAliases(100).withMaxNodes(10_000)));
+    }
+
+    @Test
+    public void testModelObjects() throws IOException {
+        byte[] content = SyntheticDocuments.load("synthetic-100.yml");
+        ParseBudgetExceededException e = assertExceeded(ParseBudget.Limit.MODEL_OBJECTS, 10,
+                () -> parse(new ByteArrayInputStream(content),
+                        ParseBudget.unlimited().withMaxModelObjects(PathItem.class, 10)));
+        assertEquals(PathItem.class, e.type());
+        parse(new ByteArrayInputStream(content),
+                ParseBudget.unlimited().withMaxModelObjects(PathItem.class, 100));
+
+        // The limit for every type applies to each type separately.
+        e = assertExceeded(ParseBudget.Limit.MODEL_OBJECTS, 10,
+                () -> parse(new ByteArrayInputStream(content),
+                        ParseBudget.unlimited().withMaxModelObjects(10).withMaxModelObjects(PathItem.class, 100)));
+        assertNotEquals(PathItem.class, e.type());
+    }
+
+    private static OpenAPI parse(InputStream is, ParseBudget budget) {
+        return Parser.parse(is, ParseOptions.defaults().withBudget(budget));
+    }
+
+    private static ParseBudgetExceededException assertExceeded(ParseBudget.Limit limit, long max,
+            Executable executable) {
+        ParseBudgetExceededException e = assertThrows(ParseBudgetExceededException.class, executable);
+        assertEquals(limit, e.limit());
+        assertEquals(max, e.max());
+        return e;
+    }
+}
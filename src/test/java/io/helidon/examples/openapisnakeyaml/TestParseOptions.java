@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestParseOptions {
+
+    private static final Projection GROUP_1 = Projection.reachableComponents().withTags("group1");
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testCombined() throws IOException {
+        byte[] content = SyntheticDocuments.load("synthetic-100.yml");
+        OpenAPI projected = Parser.parse(new ByteArrayInputStream(content),
+                ParseOptions.defaults().withProjection(GROUP_1));
+        ParseOptions options = ParseOptions.defaults()
+                .withStrings(new StringPool(1024))
+                .withProjection(GROUP_1)
+                .withBudget(ParseBudget.unlimited().withMaxInputBytes(content.length).withMaxDepth(64))
+                .inParallel(pool);
+        OpenAPI combined = Parser.parse(new ByteArrayInputStream(content), options);
+        assertEquals(SyntheticDocuments.toYAML(projected), SyntheticDocuments.toYAML(combined));
+
+        // Path items built on different pool threads still share strings.
+        Operation first = combined.getPaths().getPathItem("/resource1/{id}").getGET();
+        Operation second = combined.getPaths().getPathItem("/resource11/{id}").getGET();
+        assertSame(first.getParameters().get(0).getDescription(), second.getParameters().get(0).getDescription());
+
+        // The pool threads count the model objects they build against the budget too.
+        ParseBudgetExceededException e = assertThrows(ParseBudgetExceededException.class,
+                () -> Parser.parse(new ByteArrayInputStream(content), options
+                        .withBudget(ParseBudget.unlimited().withMaxModelObjects(Schema.class, 20))));
+        assertEquals(ParseBudget.Limit.MODEL_OBJECTS, e.limit());
+    }
+
+    @Test
+    public void testLazilyWithStrings() throws IOException {
+        byte[] content = SyntheticDocuments.load("synthetic-100.json");
+        OpenAPI openAPI = Parser.parse(new ByteArrayInputStream(content), ParseOptions.defaults()
+                .withStrings(new StringPool(1024))
+                .withProjection(GROUP_1)
+                .lazily());
+        assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content),
+                ParseOptions.defaults().withProjection(GROUP_1))), SyntheticDocuments.toYAML(openAPI));
+
+        // Path items built after the parse share the strings of the pool it used.
+        PathItem first = openAPI.getPaths().getPathItem("/resource1/{id}");
+        PathItem second = openAPI.getPaths().getPathItem("/resource11/{id}");
+        assertSame(first.getGET().getParameters().get(0).getDescription(),
+                second.getGET().getParameters().get(0).getDescription());
+    }
+
+    @Test
+    public void testLazilyAndInParallelReplaceEachOther() {
+        ParseOptions lazily = ParseOptions.defaults().inParallel(pool).lazily();
+        assertTrue(lazily.isLazy());
+        assertNull(lazily.pool());
+        ParseOptions inParallel = ParseOptions.defaults().lazily().inParallel(pool);
+        assertFalse(inParallel.isLazy());
+        assertSame(pool, inParallel.pool());
+        assertFalse(ParseOptions.defaults().isLazy());
+        assertNull(ParseOptions.defaults().pool());
+    }
+}
@@ -22,6 +22,10 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class TestParser {
 
@@ -35,6 +39,17 @@ public class TestParser {
         runTest("/petstore.json");
     }
 
+    @Test
+    public void testYAMLOutputUnchanged() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream("/openapi-greeting.yml")) {
+            StringWriter sw = new StringWriter();
+            Parser.toYAML(Parser.parse(is), sw);
+            String expected = new String(SyntheticDocuments.load("openapi-greeting-dumped.yml"),
+                    StandardCharsets.UTF_8);
+            assertEquals(expected, sw.toString());
+        }
+    }
+
     private void runTest(String path) throws IOException {
         try (InputStream is = getClass().getResourceAsStream(path)) {
             OpenAPI openAPI = Parser.parse(is);
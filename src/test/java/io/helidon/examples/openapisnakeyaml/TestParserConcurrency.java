@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestParserConcurrency {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS_PER_THREAD = 200;
+
+    @Test
+    public void testConcurrentParseAndDumpGiveSameOutput() throws Exception {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-100.json"}) {
+            byte[] doc = SyntheticDocuments.load(document);
+            String expected = parseAndDump(doc);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                // Start every thread at once, so that they parse and dump on their own thread's parser concurrently.
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+                            assertEquals(expected, parseAndDump(doc), document);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static String parseAndDump(byte[] doc) {
+        StringWriter sw = new StringWriter();
+        Parser.toYAML(Parser.parse(new ByteArrayInputStream(doc)), sw);
+        return sw.toString();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestParserListener {
+
+    private static final String DOCUMENT = "openapi: 3.0.0\n"
+            + "paths:\n"
+            + "  /pets/{id}:\n"
+            + "    get:\n"
+            + "      tags: [$ref]\n"
+            + "      parameters:\n"
+            + "      - name: id\n"
+            + "        in: path\n"
+            + "        style: simple\n"
+            + "      - $ref: '#/components/parameters/Limit'\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: pet\n"
+            + "components:\n"
+            + "  parameters:\n"
+            + "    Limit:\n"
+            + "      name: limit\n"
+            + "      in: query\n"
+            + "      description: $ref\n";
+
+    @AfterEach
+    public void removeListener() {
+        Parser.setListener(ParserListener.NONE);
+    }
+
+    @Test
+    public void testParseStatistics() {
+        List<ParserStatistics> parses = new ArrayList<>();
+        Parser.setListener(new ParserListener() {
+            @Override
+            public void parsed(ParserStatistics statistics) {
+                parses.add(statistics);
+            }
+        });
+        byte[] bytes = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        OpenAPI openAPI = Parser.parse(new ByteArrayInputStream(bytes));
+        assertEquals(1, parses.size());
+        ParserStatistics statistics = parses.get(0);
+        assertEquals(bytes.length, statistics.documentSize());
+        // 30 scalars, 10 mappings, and 2 sequences.
+        assertEquals(42, statistics.nodes());
+        // Only the key counts, not the values which happen to be "$ref".
+        assertEquals(1, statistics.refs());
+        assertEquals(3, statistics.enumConversions());
+        // OpenAPI, Paths, PathItem, Operation, 2 Parameters, APIResponses, APIResponse, Components, 1 Parameter
+        assertEquals(10, statistics.modelObjects());
+        for (ParserStatistics.Phase phase : ParserStatistics.Phase.values()) {
+            assertTrue(statistics.nanos(phase) >= 0, phase.name());
+        }
+        assertTrue(statistics.nanos(ParserStatistics.Phase.CONSTRUCTION) > 0);
+        assertEquals(0, statistics.nanos(ParserStatistics.Phase.REPRESENTATION));
+
+        Parser.setListener(ParserListener.NONE);
+        assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(bytes))), SyntheticDocuments.toYAML(openAPI));
+        assertEquals(1, parses.size());
+    }
+
+    @Test
+    public void testJSONSerializationStatistics() {
+        OpenAPI openAPI = SyntheticDocuments.parse(DOCUMENT);
+        List<ParserStatistics> serializations = new ArrayList<>();
+        Parser.setListener(new ParserListener() {
+            @Override
+            public void serialized(ParserStatistics statistics) {
+                serializations.add(statistics);
+            }
+        });
+        StringWriter writer = new StringWriter();
+        Parser.toJSON(openAPI, writer);
+        assertEquals(1, serializations.size());
+        ParserStatistics statistics = serializations.get(0);
+        assertEquals(writer.toString().length(), statistics.documentSize());
+        assertTrue(statistics.nanos(ParserStatistics.Phase.WRITING) > 0);
+        assertTrue(statistics.nanos(ParserStatistics.Phase.REPRESENTATION) > 0);
+        assertEquals(0, statistics.nanos(ParserStatistics.Phase.TAG_SUPPRESSION));
+        assertEquals(statistics.totalNanos(), statistics.nanos(ParserStatistics.Phase.WRITING)
+                + statistics.nanos(ParserStatistics.Phase.REPRESENTATION));
+
+        Parser.setListener(ParserListener.NONE);
+        StringWriter unrecorded = new StringWriter();
+        Parser.toJSON(openAPI, unrecorded);
+        assertEquals(unrecorded.toString(), writer.toString());
+    }
+
+    @Test
+    public void testSameModelWithListener() throws IOException {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-100.yml", "synthetic-100.json"}) {
+            byte[] content = SyntheticDocuments.load(document);
+            String expected = SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content)));
+            Parser.setListener(new ParserMetrics());
+            assertEquals(expected, SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content))), document);
+            Parser.setListener(ParserListener.NONE);
+        }
+    }
+
+    @Test
+    public void testMetrics() throws IOException {
+        ParserMetrics metrics = new ParserMetrics();
+        Parser.setListener(metrics);
+        byte[] content = SyntheticDocuments.load("synthetic-100.json");
+        Parser.parse(new ByteArrayInputStream(content));
+        String yaml = SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content)));
+
+        Map<String, Long> snapshot = metrics.snapshot();
+        assertEquals(2, (long) snapshot.get("parse.count"));
+        assertEquals(2L * content.length, (long) snapshot.get("parse.bytes"));
+        assertEquals(1, (long) snapshot.get("serialize.count"));
+        assertEquals(yaml.length(), (long) snapshot.get("serialize.chars"));
+        assertEquals((long) snapshot.get("parse.nanos"), snapshot.get("parse.scanning.nanos")
+                + snapshot.get("parse.composing.nanos") + snapshot.get("parse.construction.nanos"));
+        assertTrue(snapshot.get("parse.nanos.max") * 2 >= snapshot.get("parse.nanos"));
+        assertTrue(snapshot.get("serialize.tag-suppression.nanos") > 0);
+        assertTrue(snapshot.get("parse.nodes") > snapshot.get("parse.model-objects"));
+        assertTrue(snapshot.get("parse.enum-conversions") > 0);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestProjection {
+
+    private static final String DOCUMENT = "openapi: 3.0.0\n"
+            + "security:\n"
+            + "- api_key: []\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    get:\n"
+            + "      tags: [pets]\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: pets\n"
+            + "          content:\n"
+            + "            application/json:\n"
+            + "              schema:\n"
+            + "                type: array\n"
+            + "                items:\n"
+            + "                  $ref: '#/components/schemas/Pet'\n"
+            + "        default:\n"
+            + "          $ref: '#/components/responses/Error'\n"
+            + "    post:\n"
+            + "      tags: [admin]\n"
+            + "      security:\n"
+            + "      - oauth: [write]\n"
+            + "      responses:\n"
+            + "        '201':\n"
+            + "          description: created\n"
+            + "  /pets/{id}:\n"
+            + "    parameters:\n"
+            + "    - $ref: '#/components/parameters/Id'\n"
+            + "    get:\n"
+            + "      tags: [pets]\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: pet\n"
+            + "  /stores:\n"
+            + "    get:\n"
+            + "      tags: [stores]\n"
+            + "      parameters:\n"
+            + "      - name: broken\n"
+            + "        in: sideways\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: stores\n"
+            + "          content:\n"
+            + "            application/json:\n"
+            + "              schema:\n"
+            + "                $ref: '#/components/schemas/Store'\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "      properties:\n"
+            + "        tag:\n"
+            + "          $ref: '#/components/schemas/Tag'\n"
+            + "    Tag:\n"
+            + "      type: string\n"
+            + "    Store:\n"
+            + "      type: object\n"
+            + "    Message:\n"
+            + "      type: string\n"
+            + "    Unused:\n"
+            + "      type: string\n"
+            + "  responses:\n"
+            + "    Error:\n"
+            + "      description: error\n"
+            + "      content:\n"
+            + "        text/plain:\n"
+            + "          schema:\n"
+            + "            $ref: '#/components/schemas/Message'\n"
+            + "  parameters:\n"
+            + "    Id:\n"
+            + "      name: id\n"
+            + "      in: path\n"
+            + "      required: true\n"
+            + "  securitySchemes:\n"
+            + "    api_key:\n"
+            + "      type: apiKey\n"
+            + "      name: api_key\n"
+            + "      in: header\n"
+            + "    oauth:\n"
+            + "      type: oauth2\n"
+            + "  examples:\n"
+            + "    Unused:\n"
+            + "      value: 1\n";
+
+    @Test
+    public void testPathPrefix() {
+        OpenAPI openAPI = parse(Projection.reachableComponents().withPathPrefixes("/pets"));
+        assertEquals(new HashSet<>(Arrays.asList("/pets", "/pets/{id}")), openAPI.getPaths().keySet());
+        assertNotNull(openAPI.getPaths().getPathItem("/pets").getPOST());
+        assertEquals(new HashSet<>(Arrays.asList("Pet", "Tag", "Message")),
+                openAPI.getComponents().getSchemas().keySet());
+        assertEquals(new HashSet<>(Arrays.asList("Error")), openAPI.getComponents().getResponses().keySet());
+        assertEquals(new HashSet<>(Arrays.asList("Id")), openAPI.getComponents().getParameters().keySet());
+        assertEquals(new HashSet<>(Arrays.asList("api_key", "oauth")),
+                openAPI.getComponents().getSecuritySchemes().keySet());
+        assertNull(openAPI.getComponents().getExamples());
+        ReferenceResolver.eager(openAPI);
+    }
+
+    @Test
+    public void testTags() {
+        OpenAPI openAPI = parse(Projection.reachableComponents().withTags("pets"));
+        assertEquals(new HashSet<>(Arrays.asList("/pets", "/pets/{id}")), openAPI.getPaths().keySet());
+        PathItem pets = openAPI.getPaths().getPathItem("/pets");
+        assertNotNull(pets.getGET());
+        assertNull(pets.getPOST());
+        assertEquals(1, openAPI.getPaths().getPathItem("/pets/{id}").getParameters().size());
+        assertEquals(new HashSet<>(Arrays.asList("api_key")), openAPI.getComponents().getSecuritySchemes().keySet());
+
+        openAPI = parse(Projection.reachableComponents().withTags("admin"));
+        assertEquals(new HashSet<>(Arrays.asList("/pets")), openAPI.getPaths().keySet());
+        assertNull(openAPI.getComponents().getSchemas());
+        assertEquals(new HashSet<>(Arrays.asList("api_key", "oauth")),
+                openAPI.getComponents().getSecuritySchemes().keySet());
+    }
+
+    @Test
+    public void testUnselectedSubtreesNotBuilt() {
+        assertThrows(YAMLException.class, () -> Parser.parse(new ByteArrayInputStream(bytes())));
+        OpenAPI openAPI = parse(Projection.reachableComponents().withPathPrefixes("/pets/")
+                .withComponents("#/components/schemas/Unused"));
+        assertEquals(new HashSet<>(Arrays.asList("/pets/{id}")), openAPI.getPaths().keySet());
+        assertEquals(new HashSet<>(Arrays.asList("Unused")), openAPI.getComponents().getSchemas().keySet());
+    }
+
+    @Test
+    public void testSameAsFullParseWhenEverythingReachable() throws IOException {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-100.json"}) {
+            byte[] content = SyntheticDocuments.load(document);
+            assertEquals(SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content))),
+                    SyntheticDocuments.toYAML(Parser.parse(new ByteArrayInputStream(content),
+                            ParseOptions.defaults().withProjection(Projection.reachableComponents()))),
+                    document);
+        }
+    }
+
+    private static OpenAPI parse(Projection projection) {
+        return Parser.parse(new ByteArrayInputStream(bytes()), ParseOptions.defaults().withProjection(projection));
+    }
+
+    private static byte[] bytes() {
+        return DOCUMENT.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestReferenceResolver {
+
+    private static final String DOCUMENT = "openapi: 3.0.0\n"
+            + "info:\n"
+            + "  title: Refs\n"
+            + "  version: '1'\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    get:\n"
+            + "      parameters:\n"
+            + "      - $ref: '#/components/parameters/limit'\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: ok\n"
+            + "          content:\n"
+            + "            application/json:\n"
+            + "              schema:\n"
+            + "                $ref: '#/components/schemas/Pets'\n"
+            + "components:\n"
+            + "  parameters:\n"
+            + "    limit:\n"
+            + "      name: limit\n"
+            + "      in: query\n"
+            + "  schemas:\n"
+            + "    Pets:\n"
+            + "      $ref: '#/components/schemas/PetList'\n"
+            + "    PetList:\n"
+            + "      type: array\n"
+            + "      items:\n"
+            + "        $ref: Pet\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "      properties:\n"
+            + "        parent:\n"
+            + "          $ref: '#/components/schemas/Pet'\n";
+
+    @Test
+    public void testResolve() {
+        OpenAPI openAPI = SyntheticDocuments.parse(DOCUMENT);
+        ReferenceResolver resolver = ReferenceResolver.eager(openAPI);
+        Schema petList = openAPI.getComponents().getSchemas().get("PetList");
+        Schema pet = openAPI.getComponents().getSchemas().get("Pet");
+
+        Schema responseSchema = openAPI.getPaths().getPathItem("/pets").getGET().getResponses().getAPIResponse("200")
+                .getContent().getMediaType("application/json").getSchema();
+        assertEquals("#/components/schemas/Pets", responseSchema.getRef());
+        assertSame(petList, resolver.resolve(responseSchema));
+        assertSame(pet, resolver.resolve(petList.getItems()));
+        assertSame(pet, resolver.resolve(pet.getProperties().get("parent")));
+        assertSame(pet, resolver.resolve(pet));
+
+        Parameter limit = resolver.resolve(openAPI.getPaths().getPathItem("/pets").getGET().getParameters().get(0));
+        assertEquals("limit", limit.getName());
+    }
+
+    @Test
+    public void testLazyMatchesEager() {
+        OpenAPI openAPI = SyntheticDocuments.parse(DOCUMENT);
+        ReferenceResolver eager = ReferenceResolver.eager(openAPI);
+        ReferenceResolver lazy = ReferenceResolver.lazy(openAPI);
+        for (String ref : new String[] {"#/components/schemas/Pets", "#/components/parameters/limit"}) {
+            assertSame(eager.resolve(ref), lazy.resolve(ref));
+        }
+    }
+
+    @Test
+    public void testRefWrittenBack() {
+        OpenAPI openAPI = SyntheticDocuments.parse(DOCUMENT);
+        StringWriter sw = new StringWriter();
+        Parser.toYAML(openAPI, sw);
+        assertEquals(SyntheticDocuments.toYAML(openAPI), SyntheticDocuments.toYAML(SyntheticDocuments.parse(sw.toString())));
+    }
+
+    @Test
+    public void testCycle() {
+        OpenAPI openAPI = SyntheticDocuments.parse("openapi: 3.0.0\n"
+                + "components:\n"
+                + "  schemas:\n"
+                + "    A:\n"
+                + "      $ref: '#/components/schemas/B'\n"
+                + "    B:\n"
+                + "      $ref: '#/components/schemas/A'\n");
+        assertThrows(IllegalStateException.class, () -> ReferenceResolver.eager(openAPI));
+        assertThrows(IllegalStateException.class,
+                () -> ReferenceResolver.lazy(openAPI).resolve("#/components/schemas/A"));
+    }
+
+    @Test
+    public void testUnresolved() {
+        OpenAPI openAPI = SyntheticDocuments.parse("openapi: 3.0.0\n"
+                + "components:\n"
+                + "  schemas:\n"
+                + "    A:\n"
+                + "      $ref: '#/components/schemas/Missing'\n");
+        assertThrows(IllegalArgumentException.class, () -> ReferenceResolver.eager(openAPI));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReferenceResolver.lazy(openAPI).resolve("other.yml#/components/schemas/A"));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRenderedDocumentCache {
+
+    @Test
+    public void testRenderedOnce() throws IOException {
+        OpenAPI openAPI = parse("openapi-greeting.yml");
+        RenderedDocumentCache cache = new RenderedDocumentCache(10);
+
+        RenderedDocumentCache.Document yaml = cache.get(openAPI, RenderedDocumentCache.Format.YAML);
+        RenderedDocumentCache.Document json = cache.get(openAPI, RenderedDocumentCache.Format.JSON);
+        StringWriter sw = new StringWriter();
+        Parser.toYAML(openAPI, sw);
+        assertEquals(sw.toString(), yaml.toString());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Parser.toJSON(openAPI, baos);
+        assertArrayEquals(baos.toByteArray(), json.toByteArray());
+        assertNotEquals(yaml.etag(), json.etag());
+
+        assertSame(yaml, cache.get(openAPI, RenderedDocumentCache.Format.YAML));
+        assertSame(json, cache.get(openAPI, RenderedDocumentCache.Format.JSON));
+        OpenAPI sameContent = parse("openapi-greeting.yml");
+        assertEquals(yaml.etag(), cache.get(sameContent, RenderedDocumentCache.Format.YAML).etag());
+    }
+
+    @Test
+    public void testChangeDetected() throws IOException {
+        OpenAPI openAPI = parse("openapi-greeting.yml");
+        RenderedDocumentCache cache = new RenderedDocumentCache(10, true);
+        RenderedDocumentCache.Document before = cache.get(openAPI, RenderedDocumentCache.Format.YAML);
+        String title = openAPI.getInfo().getTitle();
+
+        openAPI.getInfo().setTitle(title + " (changed)");
+        RenderedDocumentCache.Document changed = cache.get(openAPI, RenderedDocumentCache.Format.YAML);
+        assertNotEquals(before.etag(), changed.etag());
+        assertTrue(changed.toString().contains("(changed)"));
+
+        openAPI.getInfo().setTitle(title);
+        RenderedDocumentCache.Document restored = cache.get(openAPI, RenderedDocumentCache.Format.YAML);
+        assertNotSame(before, restored);
+        assertEquals(before.etag(), restored.etag());
+
+        cache.invalidate(openAPI);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate() throws IOException {
+        OpenAPI openAPI = parse("openapi-greeting.yml");
+        RenderedDocumentCache cache = new RenderedDocumentCache(10);
+        RenderedDocumentCache.Document before = cache.get(openAPI, RenderedDocumentCache.Format.YAML);
+
+        openAPI.getInfo().setTitle("Changed");
+        assertSame(before, cache.get(openAPI, RenderedDocumentCache.Format.YAML));
+        cache.invalidate(openAPI);
+        assertTrue(cache.get(openAPI, RenderedDocumentCache.Format.YAML).toString().contains("Changed"));
+    }
+
+    @Test
+    public void testETagMatching() throws IOException {
+        RenderedDocumentCache.Document document = new RenderedDocumentCache(1).get(parse("openapi-greeting.yml"),
+                RenderedDocumentCache.Format.JSON);
+        String etag = document.etag();
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertTrue(document.matches(etag));
+        assertTrue(document.matches("\"other\", W/" + etag));
+        assertTrue(document.matches("*"));
+        assertFalse(document.matches("\"other\""));
+        assertFalse(document.matches(null));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws IOException {
+        OpenAPI first = parse("openapi-greeting.yml");
+        OpenAPI second = parse("openapi-greeting.yml");
+        RenderedDocumentCache cache = new RenderedDocumentCache(2);
+        RenderedDocumentCache.Document firstYAML = cache.get(first, RenderedDocumentCache.Format.YAML);
+        RenderedDocumentCache.Document secondYAML = cache.get(second, RenderedDocumentCache.Format.YAML);
+        assertSame(firstYAML, cache.get(first, RenderedDocumentCache.Format.YAML));
+
+        cache.get(first, RenderedDocumentCache.Format.JSON);
+        assertEquals(2, cache.size());
+        assertSame(firstYAML, cache.get(first, RenderedDocumentCache.Format.YAML));
+        assertNotSame(secondYAML, cache.get(second, RenderedDocumentCache.Format.YAML));
+    }
+
+    @Test
+    public void testConcurrentFirstRequestsShareOneRendering() throws Exception {
+        OpenAPI openAPI = parse("synthetic-1000.yml");
+        RenderedDocumentCache cache = new RenderedDocumentCache(1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<RenderedDocumentCache.Document>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(openAPI, RenderedDocumentCache.Format.YAML);
+                }));
+            }
+            start.countDown();
+            RenderedDocumentCache.Document document = futures.get(0).get();
+            for (Future<RenderedDocumentCache.Document> future : futures) {
+                assertSame(document, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static OpenAPI parse(String document) throws IOException {
+        return Parser.parse(new ByteArrayInputStream(SyntheticDocuments.load(document)));
+    }
+}
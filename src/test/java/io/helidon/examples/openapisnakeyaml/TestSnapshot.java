@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSnapshot {
+
+    private static final String SCHEMA_DETAILS = "openapi: 3.0.0\n"
+            + "paths: {}\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "      required: [name]\n"
+            + "      example: {id: 12345678901, name: Rex, born: 2019-10-01}\n"
+            + "      properties:\n"
+            + "        name:\n"
+            + "          type: string\n"
+            + "          maxLength: 80\n"
+            + "          example: Rex\n"
+            + "        weight:\n"
+            + "          type: number\n"
+            + "          minimum: 0.5\n"
+            + "          nullable: true\n"
+            + "        tags:\n"
+            + "          type: array\n"
+            + "          items:\n"
+            + "            $ref: '#/components/schemas/Tag'\n"
+            + "    Tag:\n"
+            + "      type: string\n"
+            + "      format: uuid\n";
+
+    @Test
+    public void testSameModelAsParsed() throws IOException {
+        for (String document : new String[] {"openapi-greeting.yml", "synthetic-1000.yml", "synthetic-100.json"}) {
+            compare(SyntheticDocuments.load(document), document);
+        }
+        compare(SCHEMA_DETAILS.getBytes(StandardCharsets.UTF_8), "schema details");
+    }
+
+    @Test
+    public void testLoadFromFile() throws IOException {
+        OpenAPI parsed = Parser.parse(new ByteArrayInputStream(SCHEMA_DETAILS.getBytes(StandardCharsets.UTF_8)));
+        Path file = Files.createTempFile("openapi", ".snapshot");
+        try {
+            Snapshot.write(parsed, file);
+            OpenAPI loaded = Snapshot.load(file);
+            assertEquals(SyntheticDocuments.toYAML(parsed), SyntheticDocuments.toYAML(loaded));
+            Schema weight = loaded.getComponents().getSchemas().get("Pet").getProperties().get("weight");
+            assertEquals(Schema.SchemaType.NUMBER, weight.getType());
+            assertEquals(parsed.getComponents().getSchemas().get("Pet").getProperties().get("weight").getMinimum(),
+                    weight.getMinimum());
+            assertEquals(Boolean.TRUE, weight.getNullable());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRejectsOtherContent() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> Snapshot.read(ByteBuffer.wrap(SyntheticDocuments.load("openapi-greeting.yml"))));
+
+        byte[] snapshot = snapshot(Parser.parse(new ByteArrayInputStream(
+                SyntheticDocuments.load("openapi-greeting.yml"))));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Snapshot.read(ByteBuffer.wrap(Arrays.copyOf(snapshot, snapshot.length / 2))));
+        assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+    }
+
+    @Test
+    public void testRejectsCorruptLengths() throws IOException {
+        byte[] snapshot = snapshot(Parser.parse(new ByteArrayInputStream(
+                SyntheticDocuments.load("openapi-greeting.yml"))));
+        byte[][] stringCounts = {
+                {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+                {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}};
+        for (byte[] stringCount : stringCounts) {
+            byte[] corrupt = Arrays.copyOf(snapshot, snapshot.length);
+            System.arraycopy(stringCount, 0, corrupt, 5, stringCount.length);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> Snapshot.read(ByteBuffer.wrap(corrupt)));
+            assertEquals("Snapshot is truncated or corrupt", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRejectsOtherClasses() throws IOException {
+        byte[] snapshot = snapshot(Parser.parse(new ByteArrayInputStream(
+                SyntheticDocuments.load("openapi-greeting.yml"))));
+        byte[] corrupt = replaceString(snapshot, "io.smallrye.openapi.api.models.info.InfoImpl",
+                Trap.class.getName());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Snapshot.read(ByteBuffer.wrap(corrupt)));
+        assertTrue(e.getMessage().contains(Trap.class.getName()), e.getMessage());
+        assertFalse(trapInitialized);
+    }
+
+    private static boolean trapInitialized;
+
+    /**
+     * A class which a snapshot must not be able to initialize or create.
+     */
+    public static class Trap {
+        static {
+            trapInitialized = true;
+        }
+    }
+
+    /**
+     * Replaces a string in the string table at the start of a snapshot, where each is written after its length.
+     */
+    private static byte[] replaceString(byte[] snapshot, String from, String to) {
+        byte[] fromBytes = from.getBytes(StandardCharsets.UTF_8);
+        byte[] toBytes = to.getBytes(StandardCharsets.UTF_8);
+        for (int i = 1; i + fromBytes.length <= snapshot.length; i++) {
+            if (snapshot[i - 1] == fromBytes.length
+                    && Arrays.equals(fromBytes, Arrays.copyOfRange(snapshot, i, i + fromBytes.length))) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                baos.write(snapshot, 0, i - 1);
+                baos.write(toBytes.length);
+                baos.write(toBytes, 0, toBytes.length);
+                baos.write(snapshot, i + fromBytes.length, snapshot.length - i - fromBytes.length);
+                return baos.toByteArray();
+            }
+        }
+        throw new AssertionError(from + " is not in the snapshot");
+    }
+
+    private static void compare(byte[] content, String name) throws IOException {
+        OpenAPI parsed = Parser.parse(new ByteArrayInputStream(content));
+        OpenAPI loaded = Snapshot.read(ByteBuffer.wrap(snapshot(parsed)));
+        assertEquals(SyntheticDocuments.toYAML(parsed), SyntheticDocuments.toYAML(loaded), name);
+    }
+
+    private static byte[] snapshot(OpenAPI openAPI) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Snapshot.write(openAPI, baos);
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestStreamingYAMLSerializer {
+
+    @Test
+    public void testMatchesNodeBasedDump() throws IOException {
+        compare("openapi-greeting.yml");
+        compare("synthetic-100.yml");
+    }
+
+    private static void compare(String document) throws IOException {
+        OpenAPI openAPI = Parser.parse(new ByteArrayInputStream(SyntheticDocuments.load(document)));
+
+        StringWriter nodeBased = new StringWriter();
+        new Yaml(new Parser.CustomRepresenter(), Parser.dumperOptions())
+                .dump(openAPI, new Parser.TagSuppressingWriter(nodeBased));
+
+        StringWriter streamed = new StringWriter();
+        Parser.toYAML(openAPI, streamed);
+
+        assertEquals(nodeBased.toString(), streamed.toString(), document);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.helidon.examples.openapisnakeyaml;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestStringPool {
+
+    @Test
+    public void testStringsShared() throws IOException {
+        for (String document : new String[] {"synthetic-100.yml", "synthetic-100.json"}) {
+            OpenAPI plain = parse(document, null);
+            OpenAPI pooled = parse(document, new StringPool(1024));
+            assertEquals(SyntheticDocuments.toYAML(plain), SyntheticDocuments.toYAML(pooled), document);
+
+            Operation first = plain.getPaths().getPathItem("/resource0/{id}").getGET();
+            Operation second = plain.getPaths().getPathItem("/resource1/{id}").getGET();
+            assertNotSame(first.getParameters().get(0).getDescription(),
+                    second.getParameters().get(0).getDescription());
+
+            first = pooled.getPaths().getPathItem("/resource0/{id}").getGET();
+            second = pooled.getPaths().getPathItem("/resource1/{id}").getGET();
+            assertSame(first.getParameters().get(0).getDescription(), second.getParameters().get(0).getDescription(),
+                    document);
+            assertSame(first.getResponses().keySet().iterator().next(),
+                    second.getResponses().keySet().iterator().next(), document);
+        }
+    }
+
+    @Test
+    public void testSharedAcrossParses() throws IOException {
+        StringPool strings = new StringPool(1024);
+        OpenAPI first = parse("openapi-greeting.yml", strings);
+        OpenAPI second = parse("openapi-greeting.yml", strings);
+        assertSame(first.getInfo().getTitle(), second.getInfo().getTitle());
+        assertNotSame(first.getInfo().getTitle(), parse("openapi-greeting.yml", new StringPool(1024)).getInfo()
+                .getTitle());
+    }
+
+    @Test
+    public void testBounded() {
+        StringPool strings = new StringPool(3);
+        assertEquals(4, strings.capacity());
+        for (int i = 0; i < 1000; i++) {
+            String s = String.valueOf(i);
+            String pooled = strings.intern(s);
+            assertEquals(s, pooled);
+            assertSame(pooled, strings.intern(new String(s)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new StringPool(1));
+    }
+
+    private static OpenAPI parse(String document, StringPool strings) throws IOException {
+        ByteArrayInputStream is = new ByteArrayInputStream(SyntheticDocuments.load(document));
+        return strings == null ? Parser.parse(is) : Parser.parse(is, ParseOptions.defaults().withStrings(strings));
+    }
+}